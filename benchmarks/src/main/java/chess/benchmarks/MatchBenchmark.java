@@ -0,0 +1,102 @@
+package chess.benchmarks;
+
+import chess.ChessMatch;
+import chess.ChessPosition;
+import chess.bitboard.BitBoard;
+import chess.bitboard.Fen;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Playing moves through ChessMatch and the check and mate tests it runs after every move
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchBenchmark {
+
+    // 1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 4. Ba4 Nf6 5. O-O Be7
+    private static final String[] OPENING = {
+        "e2", "e4", "e7", "e5", "g1", "f3", "b8", "c6", "f1", "b5",
+        "a7", "a6", "b5", "a4", "g8", "f6", "e1", "g1", "f8", "e7"
+    };
+
+    private ChessPosition[] squares;
+    private BitBoard check;
+    private BitBoard checkmate;
+    private BitBoard middlegame;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    @Setup
+    public void setUp(){
+        squares = new ChessPosition[OPENING.length];
+        for(int i = 0; i < OPENING.length; i++){
+            squares[i] = new ChessPosition(OPENING[i].charAt(1) - '0', OPENING[i].charAt(0));
+        }
+        check = Fen.parse(Positions.CHECK);
+        checkmate = Fen.parse(Positions.CHECKMATE);
+        middlegame = Fen.parse(Positions.KIWIPETE);
+    }
+
+    // Baseline for performChessMove, which has to start from a new match every time
+    @Benchmark
+    public ChessMatch newMatch(){
+        return new ChessMatch();
+    }
+
+    @Benchmark
+    public ChessMatch performChessMove(){
+        ChessMatch chessMatch = new ChessMatch();
+        for(int i = 0; i < squares.length; i += 2) chessMatch.performChessMove(squares[i], squares[i + 1]);
+        return chessMatch;
+    }
+
+    // What ChessMatch.testCheck asks the board
+    @Benchmark
+    public void testCheck(Blackhole bh){
+        bh.consume(check.isInCheck(check.getSideToMove()));
+        bh.consume(middlegame.isInCheck(middlegame.getSideToMove()));
+    }
+
+    // Checkmate is check with no legal move, as ChessMatch works it out after every move
+    @Benchmark
+    public void testCheckmate(Blackhole bh){
+        bh.consume(isCheckmate(check));
+        bh.consume(isCheckmate(checkmate));
+    }
+
+    @Benchmark
+    public int legalMoves(){
+        return MoveGenerator.generateLegal(middlegame, moves, 0);
+    }
+
+    @Benchmark
+    public int makeUndoAll(){
+        int n = MoveGenerator.generateLegal(middlegame, moves, 0);
+        int sum = 0;
+        for(int i = 0; i < n; i++){
+            middlegame.makeMove(moves[i]);
+            sum += Move.to(middlegame.lastMove());
+            middlegame.undoMove();
+        }
+        return sum;
+    }
+
+    private boolean isCheckmate(BitBoard position){
+        return position.isInCheck(position.getSideToMove()) && MoveGenerator.generateLegal(position, moves, 0) == 0;
+    }
+}
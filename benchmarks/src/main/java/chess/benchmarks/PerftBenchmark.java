@@ -0,0 +1,45 @@
+package chess.benchmarks;
+
+import chess.bitboard.Fen;
+import chess.bitboard.Perft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Move generation plus make/undo over a whole tree; divide the time by the node count for the per-node cost
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+
+    @Param({"start", "kiwipete"})
+    private String position;
+
+    @Param({"4"})
+    private int depth;
+
+    private Perft perft;
+
+    @Setup
+    public void setUp(){
+        perft = new Perft(Fen.parse(position.equals("start") ? Positions.START : Positions.KIWIPETE));
+    }
+
+    @Benchmark
+    public long perft(){
+        return perft.count(depth);
+    }
+}
@@ -0,0 +1,64 @@
+package chess.benchmarks;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// possibleMoves() for every white piece of one type in an open middlegame, both the piece's own
+// board-walking version and the match's, which filters the generated moves
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PossibleMovesBenchmark {
+
+    @Param({"P", "N", "B", "R", "Q", "K"})
+    private String piece;
+
+    private ChessMatch chessMatch;
+    private ChessPiece[] pieces;
+    private ChessPosition[] positions;
+
+    @Setup
+    public void setUp(){
+        chessMatch = new ChessMatch(Positions.KIWIPETE);
+        List<ChessPiece> found = new ArrayList<>();
+        for(ChessPiece[] row : chessMatch.getPieces()){
+            for(ChessPiece p : row){
+                if(p != null && p.getColor() == Color.WHITE && p.toString().equalsIgnoreCase(piece)) found.add(p);
+            }
+        }
+        pieces = found.toArray(new ChessPiece[0]);
+        positions = new ChessPosition[pieces.length];
+        for(int i = 0; i < pieces.length; i++) positions[i] = pieces[i].getChessPosition();
+    }
+
+    @Benchmark
+    public void piecePossibleMoves(Blackhole bh){
+        for(ChessPiece p : pieces) bh.consume(p.possibleMoves());
+    }
+
+    @Benchmark
+    public void matchPossibleMoves(Blackhole bh){
+        for(ChessPosition p : positions) bh.consume(chessMatch.possibleMoves(p));
+    }
+}
@@ -0,0 +1,53 @@
+package chess.benchmarks;
+
+import chess.ChessMatch;
+import chess.pgn.GameReplayer;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// A full 87-ply game: parsing the PGN text, and replaying its SAN moves through ChessMatch
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+
+    private byte[] pgn;
+    private PgnGame game;
+
+    @Setup
+    public void setUp() throws IOException {
+        pgn = Positions.GAME.getBytes(StandardCharsets.US_ASCII);
+        game = parse();
+    }
+
+    @Benchmark
+    public PgnGame parse() throws IOException {
+        try(PgnReader reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(pgn)))){
+            return reader.next();
+        }
+    }
+
+    @Benchmark
+    public ChessMatch replay(){
+        return GameReplayer.replay(game);
+    }
+}
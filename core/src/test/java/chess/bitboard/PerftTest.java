@@ -0,0 +1,51 @@
+package chess.bitboard;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Node counts of the standard perft reference positions (chessprogramming.org/Perft_Results), kept shallow
+// enough to run on every build. Any change to move generation, make/unmake or attack lookup shows up here
+class PerftTest {
+
+    @Test
+    void startPosition(){
+        assertPerft(Fen.START_POSITION, 20, 400, 8902, 197281);
+    }
+
+    // Castling through and out of attacks, pins, en passant and promotions all in one position
+    @Test
+    void kiwipete(){
+        assertPerft("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 48, 2039, 97862);
+    }
+
+    // Horizontal pins through an en passant capture
+    @Test
+    void enPassantEndgame(){
+        assertPerft("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 191, 2812, 43238, 674624);
+    }
+
+    @Test
+    void promotionsAndCastlingRights(){
+        assertPerft("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 6, 264, 9467, 422333);
+    }
+
+    // The same position with colors swapped has to give the same counts
+    @Test
+    void promotionsAndCastlingRightsMirrored(){
+        assertPerft("r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1", 6, 264, 9467, 422333);
+    }
+
+    @Test
+    void promotionWithCheck(){
+        assertPerft("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 44, 1486, 62379);
+    }
+
+    // expected[i] is the node count at depth i + 1
+    private static void assertPerft(String fen, long... expected){
+        Perft perft = new Perft(Fen.parse(fen));
+        for(int depth = 1; depth <= expected.length; depth++){
+            assertEquals(expected[depth - 1], perft.count(depth), fen + " at depth " + depth);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package application;
+
+import chess.ChessException;
+import chess.bitboard.BitBoard;
+import chess.bitboard.Fen;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+import chess.book.BookBuilder;
+import chess.book.OpeningBook;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class BookCommand {
+
+    private static final int DEFAULT_MAX_PLY = 20;
+    private static final int DEFAULT_MIN_GAMES = 2;
+    private static final int LOOKUPS = 1_000_000;
+
+    // Usage: book build <pgn file> <book file> [max plies] [min games]
+    //        book probe <book file> [fen]
+    public static void run(String[] args){
+        if(args.length >= 4 && args[1].equals("build")) build(args);
+        else if(args.length >= 3 && args[1].equals("probe")) probe(args);
+        else {
+            System.out.println("Usage: book build <pgn file> <book file> [max plies] [min games]");
+            System.out.println("       book probe <book file> [fen]");
+        }
+    }
+
+    private static void build(String[] args){
+        int maxPly = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_MAX_PLY;
+        int minGames = args.length > 5 ? Integer.parseInt(args[5]) : DEFAULT_MIN_GAMES;
+        BookBuilder builder = new BookBuilder(maxPly, minGames);
+        long start = System.nanoTime();
+        try(PgnReader reader = new PgnReader(Paths.get(args[2]))){
+            PgnGame game;
+            while((game = reader.next()) != null) builder.add(game);
+            int entries = builder.write(Paths.get(args[3]));
+            System.out.println("Games: " + builder.getGames());
+            System.out.println("Positions: " + builder.getPositions());
+            System.out.println("Entries: " + entries);
+            System.out.println("Time: " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        catch(IOException e){
+            System.out.println("Can't build the book: " + e.getMessage());
+        }
+    }
+
+    private static void probe(String[] args){
+        try(OpeningBook book = new OpeningBook(Paths.get(args[2]))){
+            BitBoard position = Fen.parse(args.length > 3
+                    ? String.join(" ", Arrays.copyOfRange(args, 3, args.length)) : Fen.START_POSITION);
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int[] weights = new int[MoveGenerator.MAX_MOVES];
+            int n = book.lookup(position, moves, weights);
+            if(n == 0) System.out.println("Not in book");
+            for(int i = 0; i < n; i++) System.out.println(Move.toString(moves[i]) + " " + weights[i]);
+
+            long start = System.nanoTime();
+            for(int i = 0; i < LOOKUPS; i++) book.lookup(position, moves, weights);
+            System.out.println("Entries: " + book.size());
+            System.out.println("Lookup: " + (System.nanoTime() - start) / LOOKUPS + " ns");
+        }
+        catch(IOException | ChessException e){
+            System.out.println("Can't probe the book: " + e.getMessage());
+        }
+    }
+}
@@ -14,11 +14,48 @@ public class Main {
 
     public static void main(String[] args) {
 
+        if(args.length > 0 && args[0].equals("perft")){
+            PerftCommand.run(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("bench-smp")){
+            SmpBenchCommand.run(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("pgn")){
+            PgnCommand.run(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("validate")){
+            ValidateCommand.run(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("book")){
+            BookCommand.run(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("tablebase")){
+            TablebaseCommand.run(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("uci")){
+            UciCommand.run(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("server")){
+            ServerCommand.run(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("bench-server")){
+            ServerBenchCommand.run(args);
+            return;
+        }
+
         Scanner scan = new Scanner(System.in);
         ChessMatch chessMatch = new ChessMatch();
         List<ChessPiece> captured = new ArrayList<>();
 
-        while(!chessMatch.getCheckmate()){
+        while(!chessMatch.getResult().isOver()){
             try{
                 UI.clearScreen();
                 UI.printMatch(chessMatch, captured);
@@ -0,0 +1,41 @@
+package application;
+
+import chess.ChessMatch;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class PerftCommand {
+
+    // Usage: perft <depth> [divide] [fen]
+    public static void run(String[] args){
+        if(args.length < 2){
+            System.out.println("Usage: perft <depth> [divide] [fen]");
+            return;
+        }
+        int depth = Integer.parseInt(args[1]);
+        boolean divide = args.length > 2 && args[2].equals("divide");
+        int fenStart = divide ? 3 : 2;
+        ChessMatch chessMatch = args.length > fenStart
+                ? new ChessMatch(String.join(" ", Arrays.copyOfRange(args, fenStart, args.length)))
+                : new ChessMatch();
+
+        long start = System.nanoTime();
+        long nodes;
+        if(divide){
+            nodes = 0;
+            for(Map.Entry<String, Long> entry : chessMatch.divide(depth).entrySet()){
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+            System.out.println();
+        }
+        else nodes = chessMatch.perft(depth);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("Depth: " + depth);
+        System.out.println("Nodes: " + nodes);
+        System.out.println("Time: " + elapsed / 1_000_000 + " ms");
+        System.out.println("Nodes/second: " + (elapsed == 0 ? 0 : nodes * 1_000_000_000L / elapsed));
+    }
+}
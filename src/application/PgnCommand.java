@@ -0,0 +1,52 @@
+package application;
+
+import chess.ChessException;
+import chess.pgn.GameReplayer;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class PgnCommand {
+
+    private static final int PROGRESS_INTERVAL = 100_000;
+
+    // Usage: pgn <file>
+    public static void run(String[] args){
+        if(args.length < 2){
+            System.out.println("Usage: pgn <file>");
+            return;
+        }
+        long games = 0;
+        long invalid = 0;
+        long plies = 0;
+        long start = System.nanoTime();
+        try(PgnReader reader = new PgnReader(Paths.get(args[1]))){
+            PgnGame game;
+            while((game = reader.next()) != null){
+                games++;
+                try{
+                    GameReplayer.replay(game);
+                    plies += game.getMoves().size();
+                }
+                catch(ChessException e){
+                    invalid++;
+                    System.out.println("Game " + games + ": " + e.getMessage());
+                }
+                if(games % PROGRESS_INTERVAL == 0) System.out.println(games + " games...");
+            }
+            long elapsed = Math.max(System.nanoTime() - start, 1);
+
+            System.out.println("Games: " + games);
+            System.out.println("Invalid: " + invalid);
+            System.out.println("Plies: " + plies);
+            System.out.println("Time: " + elapsed / 1_000_000 + " ms");
+            System.out.println("Games/second: " + games * 1_000_000_000L / elapsed);
+            System.out.println("MB/second: " + reader.getBytesRead() * 1000L / elapsed);
+        }
+        catch(IOException e){
+            System.out.println("Can't read " + args[1] + ": " + e.getMessage());
+        }
+    }
+}
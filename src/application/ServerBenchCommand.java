@@ -0,0 +1,139 @@
+package application;
+
+import server.GameServer;
+import server.LatencyHistogram;
+import server.MoveJournal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Load test: starts a server in this process and plays random games on many concurrent connections
+public class ServerBenchCommand {
+
+    private static final int MAX_PLIES = 200;
+
+    // Usage: bench-server [connections] [moves per connection] [journal directory]
+    public static void run(String[] args){
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int movesPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        ExecutorService executor = GameServer.newVirtualThreadExecutor();
+        if(executor == null) executor = Executors.newCachedThreadPool();
+        LatencyHistogram roundTrip = new LatencyHistogram();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong games = new AtomicLong();
+
+        try(MoveJournal journal = args.length > 3 ? new MoveJournal(Paths.get(args[3])) : null;
+            GameServer server = new GameServer(0, journal)){
+            server.start();
+            CountDownLatch connected = new CountDownLatch(clients);
+            CountDownLatch go = new CountDownLatch(1);
+            for(int i = 0; i < clients; i++){
+                long seed = i;
+                executor.execute(() -> {
+                    try{
+                        play(server.getPort(), seed, movesPerClient, connected, go, roundTrip, games);
+                    }
+                    catch(IOException | RuntimeException e){
+                        failures.incrementAndGet();
+                    }
+                });
+            }
+            connected.await();
+            int matches = server.getActiveMatches();
+            long start = System.nanoTime();
+            go.countDown();
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+            long elapsed = Math.max(System.nanoTime() - start, 1);
+
+            System.out.println("Threads: " + (server.usesVirtualThreads() ? "virtual" : "platform"));
+            System.out.println("Connections: " + clients + " (failed " + failures.get() + ")");
+            System.out.println("Concurrent matches: " + matches);
+            System.out.println("Games: " + games.get());
+            System.out.println("Moves: " + roundTrip.getCount());
+            System.out.println("Time: " + elapsed / 1_000_000 + " ms");
+            System.out.println("Moves/second: " + roundTrip.getCount() * 1_000_000_000L / elapsed);
+            System.out.println("Round trip: " + roundTrip.summary());
+            System.out.println("Server move: " + server.getMoveLatency().summary());
+            if(journal != null) System.out.println("Journal syncs: " + journal.getSyncs());
+        }
+        catch(IOException e){
+            System.out.println("Can't start server: " + e.getMessage());
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Every client opens its match first, then waits so all matches are live while moves are timed
+    private static void play(int port, long seed, int moves, CountDownLatch connected, CountDownLatch go,
+                             LatencyHistogram roundTrip, AtomicLong games) throws IOException {
+        Random random = new Random(seed);
+        Socket socket = null;
+        BufferedReader in;
+        OutputStream out;
+        String id;
+        try{
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = socket.getOutputStream();
+            id = request(in, out, "new").substring(3);
+        }
+        catch(IOException e){
+            if(socket != null) socket.close();
+            throw e;
+        }
+        finally{
+            connected.countDown();
+        }
+
+        try{
+            go.await();
+
+            int plies = 0;
+            for(int i = 0; i < moves; i++){
+                String[] legal = request(in, out, "moves " + id).split(" ");
+                long start = System.nanoTime();
+                String answer = request(in, out, "move " + id + " " + legal[1 + random.nextInt(legal.length - 1)]);
+                roundTrip.record(System.nanoTime() - start);
+                plies++;
+                if(!answer.endsWith("ongoing") && !answer.endsWith("check") || plies == MAX_PLIES){
+                    request(in, out, "close " + id);
+                    id = request(in, out, "new").substring(3);
+                    games.incrementAndGet();
+                    plies = 0;
+                }
+            }
+            out.write("quit\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        finally{
+            socket.close();
+        }
+    }
+
+    private static String request(BufferedReader in, OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        String answer = in.readLine();
+        if(answer == null || !answer.startsWith("ok")) throw new IOException("Server answered " + answer);
+        return answer;
+    }
+}
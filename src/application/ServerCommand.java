@@ -0,0 +1,42 @@
+package application;
+
+import server.GameServer;
+import server.MoveJournal;
+import server.Recovery;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class ServerCommand {
+
+    private static final int DEFAULT_PORT = 7878;
+    private static final long REPORT_INTERVAL_MS = 10_000;
+
+    // Usage: server [port] [journal directory]
+    public static void run(String[] args){
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        try(MoveJournal journal = args.length > 2 ? new MoveJournal(Paths.get(args[2])) : null;
+            GameServer server = new GameServer(port, journal)){
+            if(journal != null){
+                Recovery recovered = journal.recover();
+                server.adopt(recovered);
+                System.out.println("Recovered " + recovered.getMatches().size() + " matches from " + args[2]);
+            }
+            server.start();
+            System.out.println("Listening on 127.0.0.1:" + server.getPort()
+                    + (server.usesVirtualThreads() ? " (virtual threads)" : " (platform threads)"));
+            while(true){
+                Thread.sleep(REPORT_INTERVAL_MS);
+                System.out.println("Connections: " + server.getActiveConnections()
+                        + "  Matches: " + server.getActiveMatches()
+                        + "  Move latency: " + server.getMoveLatency().summary());
+            }
+        }
+        catch(IOException e){
+            System.out.println("Can't start server: " + e.getMessage());
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package application;
+
+import chess.ChessMatch;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+
+public class SmpBenchCommand {
+
+    // Usage: bench-smp [seconds per run] [max threads] [hash MB]
+    public static void run(String[] args){
+        long millis = (args.length > 1 ? Long.parseLong(args[1]) : 5) * 1000;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int hashMb = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+        ChessMatch chessMatch = new ChessMatch();
+
+        // Warm-up so the single-threaded baseline isn't measured on interpreted code
+        ParallelSearch warmUp = new ParallelSearch(new TranspositionTable(16), 1);
+        warmUp.search(chessMatch.copyPosition(), SearchLimits.time(1000));
+        warmUp.shutdown();
+
+        long baseline = 0;
+        for(int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)){
+            TranspositionTable table = new TranspositionTable(hashMb);
+            ParallelSearch search = new ParallelSearch(table, threads);
+            SearchResult result = search.search(chessMatch.copyPosition(), SearchLimits.time(millis));
+            search.shutdown();
+
+            long nps = result.getNodesPerSecond();
+            if(threads == 1) baseline = nps;
+            System.out.println("Threads: " + threads
+                    + "  Depth: " + result.getDepth()
+                    + "  Nodes/second: " + nps
+                    + "  Speedup: " + String.format("%.2f", baseline == 0 ? 0 : (double) nps / baseline)
+                    + "  Hashfull: " + table.hashfull()
+                    + "  Pawn hits: " + String.format("%.1f%%", 100 * search.pawnHitRate()));
+        }
+    }
+
+    // 1, 2, 4, ... and always the maximum itself
+    private static int nextThreadCount(int threads, int maxThreads){
+        if(threads == maxThreads) return maxThreads + 1;
+        return Math.min(threads * 2, maxThreads);
+    }
+}
@@ -0,0 +1,72 @@
+package application;
+
+import chess.ChessException;
+import chess.bitboard.BitBoard;
+import chess.bitboard.Fen;
+import chess.tablebase.Ending;
+import chess.tablebase.TablebaseGenerator;
+import chess.tablebase.Tablebases;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class TablebaseCommand {
+
+    // Usage: tablebase generate <directory> [threads]
+    //        tablebase probe <directory> <fen>
+    public static void run(String[] args){
+        if(args.length >= 3 && args[1].equals("generate")) generate(args);
+        else if(args.length >= 4 && args[1].equals("probe")) probe(args);
+        else {
+            System.out.println("Usage: tablebase generate <directory> [threads]");
+            System.out.println("       tablebase probe <directory> <fen>");
+        }
+    }
+
+    private static void generate(String[] args){
+        Path directory = Paths.get(args[2]);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        TablebaseGenerator generator = new TablebaseGenerator(threads);
+        try{
+            Files.createDirectories(directory);
+            for(Ending ending : Ending.values()){
+                long start = System.nanoTime();
+                byte[] table = generator.generate(ending);
+                TablebaseGenerator.write(ending, table, directory);
+                int longest = 0;
+                long wins = 0;
+                for(byte value : table){
+                    if(value == 0) continue;
+                    wins++;
+                    longest = Math.max(longest, (value & 0xFF) - 1);
+                }
+                System.out.println(ending + ": " + table.length + " positions, " + wins + " decided, longest mate "
+                        + longest + " plies, " + generator.getPasses() + " passes, "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms on " + generator.getThreads() + " threads");
+            }
+        }
+        catch(IOException e){
+            System.out.println("Can't write tablebases: " + e.getMessage());
+        }
+        finally{
+            generator.shutdown();
+        }
+    }
+
+    private static void probe(String[] args){
+        try(Tablebases tablebases = new Tablebases(Paths.get(args[2]))){
+            BitBoard position = Fen.parse(String.join(" ", Arrays.copyOfRange(args, 3, args.length)));
+            int result = tablebases.probe(position);
+            if(result == Tablebases.UNKNOWN) System.out.println("Not in the tablebases");
+            else if(result == Tablebases.DRAW) System.out.println("Draw");
+            else System.out.println((result == Tablebases.WIN ? "Win" : "Loss") + ", mate in "
+                    + tablebases.distanceToMate(position) + " plies");
+        }
+        catch(IOException | ChessException e){
+            System.out.println("Can't probe: " + e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.ChessPosition;
 import chess.Color;
+import chess.bitboard.BitBoard;
+import chess.bitboard.Bitboards;
 
 import java.util.Arrays;
 import java.util.InputMismatchException;
@@ -27,10 +29,10 @@ public class UI {
 
     public static ChessPosition readChessPosition(Scanner scan){
         try{
-            String s = scan.nextLine();
-            char column = s.charAt(0);
-            int row = Integer.parseInt(s.substring(1));
-            return new ChessPosition(row, column);
+            String s = scan.nextLine().trim();
+            int square = s.length() == 2 ? Bitboards.parseSquare(s, 0) : BitBoard.NO_SQUARE;
+            if(square == BitBoard.NO_SQUARE) throw new IllegalArgumentException(s);
+            return ChessPosition.fromSquare(square);
         }
         catch(RuntimeException e){
             throw new InputMismatchException("Error reading ChessPosition. Valid positions are from a1 to h8");
@@ -41,11 +43,13 @@ public class UI {
         printBoard(chessMatch.getPieces());
         printCapturedPieces(captured);
         System.out.println("\nTurn: " + chessMatch.getTurn());
-        if(!chessMatch.getCheckmate()){
+        if(chessMatch.getCheckmate()) System.out.println("CHECKMATE!\nWinner: " + chessMatch.getCurrentPlayer());
+        else if(chessMatch.getStalemate()) System.out.println("STALEMATE!\nThe game is drawn.");
+        else if(chessMatch.getResult().isDraw()) System.out.println(chessMatch.getResult() + "!\nThe game is drawn.");
+        else {
             System.out.println("Waiting for player " + chessMatch.getCurrentPlayer() + " to make a move.");
             if (chessMatch.getCheck()) System.out.println("CHECK!");
         }
-        else System.out.println("CHECKMATE!\nWinner: " + chessMatch.getCurrentPlayer());
     }
 
     public static void printBoard(ChessPiece[][] pieces){
@@ -0,0 +1,391 @@
+package application;
+
+import chess.ChessException;
+import chess.bitboard.BitBoard;
+import chess.bitboard.Fen;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+import chess.book.OpeningBook;
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import chess.notation.Uci;
+import chess.tablebase.Tablebases;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Universal Chess Interface front-end. Commands are read on the calling thread while the search runs
+// on its own thread, so "stop" and "isready" are answered while it thinks
+public class UciCommand {
+
+    private static final String NAME = "chess-system";
+    private static final int DEFAULT_HASH_MB = 64;
+    private static final int MAX_HASH_MB = 65536;
+    private static final int MAX_THREADS = 512;
+    // Kept back from the clock for the time it takes to read and send the move
+    private static final long MOVE_OVERHEAD_MS = 50;
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "uci-timer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    private final Random random = new Random();
+
+    private BitBoard position = Fen.parse(Fen.START_POSITION);
+    private int hashMb = DEFAULT_HASH_MB;
+    private int threads = 1;
+    private TranspositionTable table;
+    private ParallelSearch search;
+    private Thread searchThread;
+    private ScheduledFuture<?> ponderTimer;
+    // "go infinite" and "go ponder" must not answer before "stop" or "ponderhit", even when the search ends early
+    private boolean holdBestMove;
+    private long ponderBudgetMs;
+    private OpeningBook book;
+    private final int[] bookMoves = new int[MoveGenerator.MAX_MOVES];
+    private final int[] bookWeights = new int[MoveGenerator.MAX_MOVES];
+    private Tablebases tablebases;
+    private boolean ownBook;
+
+    // Usage: uci
+    public static void run(String[] args){
+        new UciCommand().loop();
+    }
+
+    private void loop(){
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        try{
+            String line;
+            while((line = in.readLine()) != null){
+                String[] tokens = line.trim().split("\\s+");
+                if(tokens[0].equals("quit")) break;
+                handle(tokens);
+            }
+        }
+        catch(IOException e){
+            send("info string " + e.getMessage());
+        }
+        stopSearch();
+        if(search != null) search.shutdown();
+        closeBook();
+        closeTablebases();
+        timer.shutdownNow();
+    }
+
+    private void handle(String[] tokens){
+        switch(tokens[0]){
+            case "uci":
+                send("id name " + NAME);
+                send("id author BrunoSNogueira");
+                send("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name Ponder type check default false");
+                send("option name OwnBook type check default false");
+                send("option name BookFile type string default <empty>");
+                send("option name TablebasePath type string default <empty>");
+                send("uciok");
+                break;
+            case "isready":
+                engine();
+                send("readyok");
+                break;
+            case "setoption":
+                setOption(tokens);
+                break;
+            case "ucinewgame":
+                stopSearch();
+                engine();
+                table.clear();
+                break;
+            case "position":
+                stopSearch();
+                position(tokens);
+                break;
+            case "go":
+                stopSearch();
+                go(tokens);
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "ponderhit":
+                ponderHit();
+                break;
+            default:
+                if(!tokens[0].isEmpty()) send("info string Unknown command: " + tokens[0]);
+        }
+    }
+
+    private void setOption(String[] tokens){
+        int name = indexOf(tokens, "name");
+        int value = indexOf(tokens, "value");
+        if(name < 0 || value < 0 || value + 1 >= tokens.length) return;
+        String option = String.join(" ", Arrays.copyOfRange(tokens, name + 1, value));
+        if(option.equalsIgnoreCase("OwnBook")){
+            ownBook = tokens[value + 1].equalsIgnoreCase("true");
+            return;
+        }
+        if(option.equalsIgnoreCase("BookFile")){
+            openBook(String.join(" ", Arrays.copyOfRange(tokens, value + 1, tokens.length)));
+            return;
+        }
+        if(option.equalsIgnoreCase("TablebasePath")){
+            stopSearch();
+            openTablebases(String.join(" ", Arrays.copyOfRange(tokens, value + 1, tokens.length)));
+            return;
+        }
+        try{
+            if(option.equalsIgnoreCase("Hash"))
+                hashMb = Math.max(1, Math.min(Integer.parseInt(tokens[value + 1]), MAX_HASH_MB));
+            else if(option.equalsIgnoreCase("Threads"))
+                threads = Math.max(1, Math.min(Integer.parseInt(tokens[value + 1]), MAX_THREADS));
+            else return;
+        }
+        catch(NumberFormatException e){
+            send("info string Invalid value for " + option);
+            return;
+        }
+        // Rebuilt on the next isready or go
+        stopSearch();
+        if(search != null) search.shutdown();
+        search = null;
+        table = null;
+    }
+
+    // position (startpos | fen <fen>) [moves <move>...]
+    private void position(String[] tokens){
+        int movesIndex = indexOf(tokens, "moves");
+        int end = movesIndex < 0 ? tokens.length : movesIndex;
+        try{
+            if(tokens.length > 1 && tokens[1].equals("fen"))
+                position = Fen.parse(String.join(" ", Arrays.copyOfRange(tokens, 2, end)));
+            else position = Fen.parse(Fen.START_POSITION);
+            if(movesIndex < 0) return;
+            for(int i = movesIndex + 1; i < tokens.length; i++)
+                position.makeMove(Uci.parse(position, tokens[i], moves));
+        }
+        catch(ChessException e){
+            send("info string " + e.getMessage());
+        }
+    }
+
+    private void go(String[] tokens){
+        engine();
+        SearchLimits limits = SearchLimits.infinite();
+        long time = 0;
+        long increment = 0;
+        int movesToGo = DEFAULT_MOVES_TO_GO;
+        boolean infinite = false;
+        boolean ponder = false;
+        boolean white = position.getSideToMove() == BitBoard.WHITE;
+        try{
+            for(int i = 1; i < tokens.length; i++){
+                String value = i + 1 < tokens.length ? tokens[i + 1] : "0";
+                switch(tokens[i]){
+                    case "wtime": if(white) time = Long.parseLong(value); i++; break;
+                    case "btime": if(!white) time = Long.parseLong(value); i++; break;
+                    case "winc": if(white) increment = Long.parseLong(value); i++; break;
+                    case "binc": if(!white) increment = Long.parseLong(value); i++; break;
+                    case "movestogo": movesToGo = Math.max(1, Integer.parseInt(value)); i++; break;
+                    case "depth": limits.setDepth(Integer.parseInt(value)); i++; break;
+                    case "nodes": limits.setNodes(Long.parseLong(value)); i++; break;
+                    case "movetime": limits.setTimeMs(Long.parseLong(value)); i++; break;
+                    case "infinite": infinite = true; break;
+                    case "ponder": ponder = true; break;
+                    default: break;
+                }
+            }
+        }
+        catch(NumberFormatException e){
+            send("info string Invalid go command");
+            return;
+        }
+
+        long budget = 0;
+        if(limits.getTimeMs() == 0 && time > 0)
+            budget = Math.max(1, Math.min(time / movesToGo + increment * 3 / 4, time - MOVE_OVERHEAD_MS));
+        // A ponder search runs until the opponent moves; its clock starts at ponderhit
+        if(ponder) ponderBudgetMs = budget;
+        else if(!infinite && budget > 0) limits.setTimeMs(budget);
+
+        // Book moves are answered at once; an infinite or ponder search is left to run as asked
+        if(ownBook && book != null && !infinite && !ponder){
+            int move = book.pick(position, random, bookMoves, bookWeights);
+            if(move != Move.NONE){
+                send("bestmove " + Move.toString(move));
+                return;
+            }
+        }
+
+        synchronized(this){
+            holdBestMove = infinite || ponder;
+        }
+        BitBoard root = new BitBoard(position);
+        ParallelSearch current = search;
+        searchThread = new Thread(() -> {
+            SearchResult result = current.search(root, limits);
+            awaitRelease();
+            sendBestMove(result);
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    private void ponderHit(){
+        if(searchThread == null) return;
+        if(ponderBudgetMs > 0){
+            ParallelSearch current = search;
+            ponderTimer = timer.schedule(current::stop, ponderBudgetMs, TimeUnit.MILLISECONDS);
+        }
+        release();
+    }
+
+    // A search that hasn't reached its first node yet would miss a single stop, so keep stopping until it ends
+    private void stopSearch(){
+        if(searchThread == null) return;
+        if(ponderTimer != null) ponderTimer.cancel(false);
+        ponderTimer = null;
+        release();
+        while(searchThread.isAlive()){
+            search.stop();
+            try{
+                searchThread.join(1);
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        searchThread = null;
+    }
+
+    private synchronized void release(){
+        holdBestMove = false;
+        notifyAll();
+    }
+
+    private synchronized void awaitRelease(){
+        while(holdBestMove){
+            try{
+                wait();
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void openBook(String path){
+        closeBook();
+        if(path.isEmpty() || path.equals("<empty>")) return;
+        try{
+            book = new OpeningBook(Paths.get(path));
+            send("info string Book " + path + " with " + book.size() + " entries");
+        }
+        catch(IOException e){
+            send("info string Can't open book " + path + ": " + e.getMessage());
+        }
+    }
+
+    private void closeBook(){
+        if(book == null) return;
+        try{
+            book.close();
+        }
+        catch(IOException e){
+            send("info string " + e.getMessage());
+        }
+        book = null;
+    }
+
+    private void openTablebases(String path){
+        closeTablebases();
+        if(path.isEmpty() || path.equals("<empty>")) return;
+        try{
+            tablebases = new Tablebases(Paths.get(path));
+            send("info string " + tablebases.count() + " tablebases in " + path);
+        }
+        catch(IOException e){
+            send("info string Can't open tablebases in " + path + ": " + e.getMessage());
+        }
+        if(search != null) search.setTablebases(tablebases);
+    }
+
+    private void closeTablebases(){
+        if(tablebases == null) return;
+        if(search != null) search.setTablebases(null);
+        try{
+            tablebases.close();
+        }
+        catch(IOException e){
+            send("info string " + e.getMessage());
+        }
+        tablebases = null;
+    }
+
+    private void engine(){
+        if(table == null) table = new TranspositionTable(hashMb);
+        if(search == null){
+            search = new ParallelSearch(table, threads);
+            search.setListener(this::sendInfo);
+            search.setTablebases(tablebases);
+        }
+    }
+
+    private void sendInfo(SearchResult result){
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("info depth ").append(result.getDepth());
+        appendScore(sb, result.getScore());
+        sb.append(" nodes ").append(result.getNodes())
+                .append(" nps ").append(result.getNodesPerSecond())
+                .append(" hashfull ").append(table.hashfull())
+                .append(" tbhits ").append(search.getTablebaseHits())
+                .append(" time ").append(result.getTimeMs())
+                .append(" pv");
+        for(int move : result.getPrincipalVariation()) sb.append(' ').append(Move.toString(move));
+        send(sb.toString());
+    }
+
+    private void sendBestMove(SearchResult result){
+        int[] pv = result.getPrincipalVariation();
+        StringBuilder sb = new StringBuilder("bestmove ").append(Move.toString(result.getBestMove()));
+        if(pv.length > 1) sb.append(" ponder ").append(Move.toString(pv[1]));
+        send(sb.toString());
+    }
+
+    // Mate scores are reported in moves, negative when the engine is being mated
+    private static void appendScore(StringBuilder sb, int score){
+        if(Search.isMateScore(score)){
+            int plies = Search.MATE - Math.abs(score);
+            sb.append(" score mate ").append(score > 0 ? (plies + 1) / 2 : -(plies / 2));
+        }
+        else sb.append(" score cp ").append(score);
+    }
+
+    private static int indexOf(String[] tokens, String token){
+        for(int i = 0; i < tokens.length; i++){
+            if(tokens[i].equals(token)) return i;
+        }
+        return -1;
+    }
+
+    private static synchronized void send(String line){
+        System.out.println(line);
+        System.out.flush();
+    }
+}
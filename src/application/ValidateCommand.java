@@ -0,0 +1,62 @@
+package application;
+
+import chess.pgn.BulkValidator;
+import chess.pgn.ValidationReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class ValidateCommand {
+
+    private static final long MB = 1 << 20;
+
+    // Usage: validate <file> [threads] [chunk MB]
+    public static void run(String[] args){
+        if(args.length < 2){
+            System.out.println("Usage: validate <file> [threads] [chunk MB]");
+            return;
+        }
+        Path path = Paths.get(args[1]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        BulkValidator validator = new BulkValidator(threads);
+        try{
+            // Several chunks per thread by default so work stealing can even out slow chunks
+            long chunkSize = args.length > 3 ? Long.parseLong(args[3]) * MB
+                    : Math.max(MB, Files.size(path) / (threads * 8L));
+
+            long start = System.nanoTime();
+            ValidationReport report = validator.validate(path, chunkSize);
+            long elapsed = Math.max(System.nanoTime() - start, 1);
+
+            for(String error : report.getErrors()) System.out.println(error);
+            if(report.getInvalid() > report.getErrors().size())
+                System.out.println("... " + (report.getInvalid() - report.getErrors().size()) + " more");
+
+            System.out.println("Threads: " + validator.getThreads());
+            System.out.println("Games: " + report.getGames());
+            System.out.println("Invalid: " + report.getInvalid());
+            System.out.println("Plies: " + report.getPlies());
+            System.out.println("Results: 1-0 " + report.getWhiteWins() + ", 0-1 " + report.getBlackWins()
+                    + ", 1/2-1/2 " + report.getDraws() + ", * " + report.getUnfinished());
+            System.out.println("Final positions: checkmate " + report.getCheckmates()
+                    + ", stalemate " + report.getStalemates());
+            System.out.println("Split: " + validator.getSplitNanos() / 1_000_000 + " ms");
+            System.out.println("Parse: " + perSecond(report.getBytes(), report.getParseNanos()) / MB + " MB/second per thread");
+            System.out.println("Replay: " + perSecond(report.getGames(), report.getReplayNanos()) + " games/second per thread");
+            System.out.println("Time: " + elapsed / 1_000_000 + " ms");
+            System.out.println("Games/second: " + perSecond(report.getGames(), elapsed));
+        }
+        catch(IOException e){
+            System.out.println("Can't read " + args[1] + ": " + e.getMessage());
+        }
+        finally{
+            validator.shutdown();
+        }
+    }
+
+    private static long perSecond(long count, long nanos){
+        return nanos == 0 ? 0 : (long) (count * 1e9 / nanos);
+    }
+}
@@ -7,6 +7,8 @@ public class Board {
     private int rows;
     private int columns;
     private Piece[][] pieces;
+    // One bit per occupied position, row * columns + column; only kept for boards of up to 64 positions
+    private long occupancy;
 
     public Board(int rows, int columns) {
         if(rows < 1 || columns < 1) throw new BoardException("Error creating board: there must be at least 1 row and 1 column");
@@ -20,6 +22,11 @@ public class Board {
     }
     public int getColumns() { return columns; }
 
+    public long getOccupancy() {
+        if(rows * columns > 64) throw new BoardException("Occupancy only covers boards of up to 64 positions");
+        return occupancy;
+    }
+
     public Piece piece(int row, int column){
         if(!positionExists(row, column)) throw new BoardException("Position not on the board");
         return pieces[row][column];
@@ -34,6 +41,7 @@ public class Board {
         if(thereIsAPiece(position)) throw new BoardException("There is already a piece on position " + position);
         pieces[position.getRow()][position.getColumn()] = piece;
         piece.position = position;
+        occupancy |= bit(position);
     }
 
     public Piece removePiece(Position position){
@@ -43,10 +51,16 @@ public class Board {
         Piece aux = piece(position);
         aux.position = null;
         pieces[position.getRow()][position.getColumn()] = null;
+        occupancy &= ~bit(position);
 
         return aux;
     }
 
+    private long bit(Position position){
+        int index = position.getRow() * columns + position.getColumn();
+        return index < 64 ? 1L << index : 0;
+    }
+
     private boolean positionExists(int row, int column){
         return row >= 0 && row < rows && column >= 0 && column < columns;
     }
@@ -3,32 +3,101 @@ package chess;
 import board.Board;
 import board.Piece;
 import board.Position;
+import chess.bitboard.BitBoard;
+import chess.bitboard.Bitboards;
+import chess.bitboard.Fen;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+import chess.bitboard.Perft;
+import chess.bitboard.PositionCodec;
+import chess.notation.San;
+import chess.notation.Uci;
 import chess.pieces.*;
+import chess.tablebase.Tablebases;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 public class ChessMatch {
 
     private int turn;
     private Color currentPlayer;
     private final Board board;
+    private final BitBoard bitBoard;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
     private boolean check;
     private boolean checkmate;
+    private boolean stalemate;
     private ChessPiece enPassantVulnerable;
     private ChessPiece promoted;
 
-    private final List<Piece> onBoardPieces = new ArrayList<>();
+    private static final String[] PROMOTION_TYPES = {"N", "B", "R", "Q"};
+
+    // Null for the standard initial setup
+    private final byte[] startPosition;
+    private int[] moveHistory = new int[64];
+    private int moveCount;
+
+    private final PieceList onBoardPieces = new PieceList();
+    // Undo only ever takes back the latest capture, so this is used as a stack
     private final List<Piece> capturedPieces = new ArrayList<>();
 
     public ChessMatch(){
         turn = 1;
         currentPlayer = Color.WHITE;
         board = new Board(8, 8);
+        bitBoard = new BitBoard();
+        startPosition = null;
         initialSetup();
     }
 
+    public ChessMatch(String fen){
+        this(Fen.parse(fen));
+    }
+
+    public ChessMatch(BitBoard position){
+        this(position, pack(position));
+    }
+
+    // A match already under way: startPosition is its packed start (null for the initial setup), position
+    // the one reached, with the moves that led there still in its history for repetition detection
+    ChessMatch(byte[] startPosition, BitBoard position, int[] moves, int moveCount){
+        this(position, startPosition);
+        moveHistory = Arrays.copyOf(moves, Math.max(moveCount, 64));
+        this.moveCount = moveCount;
+    }
+
+    private ChessMatch(BitBoard position, byte[] startPosition){
+        bitBoard = new BitBoard(position);
+        this.startPosition = startPosition;
+        board = new Board(8, 8);
+        currentPlayer = (bitBoard.getSideToMove() == BitBoard.WHITE) ? Color.WHITE : Color.BLACK;
+        turn = 2 * (bitBoard.getFullmoveNumber() - 1) + (currentPlayer == Color.WHITE ? 1 : 2);
+        fenSetup();
+
+        int ep = bitBoard.getEnPassantSquare();
+        if(ep != BitBoard.NO_SQUARE) enPassantVulnerable = (ChessPiece) board.piece(Bitboards.toPosition(ep ^ 8));
+
+        check = testCheck(currentPlayer);
+        boolean noLegalMoves = MoveGenerator.generateLegal(bitBoard, moves, 0) == 0;
+        checkmate = check && noLegalMoves;
+        stalemate = !check && noLegalMoves;
+        // As after performMove, a mated position leaves the player who delivered mate as the current one
+        if(checkmate){
+            turn--;
+            currentPlayer = opponent(currentPlayer);
+        }
+    }
+
+    private static byte[] pack(BitBoard position){
+        byte[] packed = new byte[PositionCodec.size(position)];
+        PositionCodec.write(position, ByteBuffer.wrap(packed));
+        return packed;
+    }
+
     public int getTurn() {
         return turn;
     }
@@ -45,6 +114,32 @@ public class ChessMatch {
         return checkmate;
     }
 
+    public boolean getStalemate(){
+        return stalemate;
+    }
+
+    // Repetitions and the fifty-move rule end the game as soon as they occur rather than on a claim,
+    // so automated play can't run on forever
+    public GameResult getResult(){
+        if(checkmate) return currentPlayer == Color.WHITE ? GameResult.WHITE_WINS : GameResult.BLACK_WINS;
+        if(stalemate) return GameResult.STALEMATE;
+        if(bitBoard.hasInsufficientMaterial()) return GameResult.INSUFFICIENT_MATERIAL;
+        if(bitBoard.repetitions() >= 2) return GameResult.THREEFOLD_REPETITION;
+        if(bitBoard.isFiftyMoveDraw()) return GameResult.FIFTY_MOVE_RULE;
+        return GameResult.IN_PROGRESS;
+    }
+
+    // Outcome with best play for the player to move: Tablebases.WIN, DRAW or LOSS, or UNKNOWN when
+    // no loaded table covers the position
+    public int getTablebaseResult(Tablebases tablebases){
+        return tablebases.probe(bitBoard);
+    }
+
+    // Plies until mate with best play, when the tablebase result is a win or a loss
+    public int getTablebaseDistance(Tablebases tablebases){
+        return tablebases.distanceToMate(bitBoard);
+    }
+
     public ChessPiece getEnPassantVulnerable() {
         return enPassantVulnerable;
     }
@@ -53,12 +148,54 @@ public class ChessMatch {
         return promoted;
     }
 
+    public long getZobristKey() {
+        return bitBoard.getKey();
+    }
+
+    // Position the match started from
+    public BitBoard getStartPosition(){
+        return startPosition == null ? Fen.parse(Fen.START_POSITION) : PositionCodec.read(ByteBuffer.wrap(startPosition));
+    }
+
+    // Packed moves played so far (see chess.bitboard.Move), promotions included
+    public int[] getMoveHistory(){
+        return Arrays.copyOf(moveHistory, moveCount);
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public boolean hasStandardStart(){
+        return startPosition == null;
+    }
+
+    // Start position as written by PositionCodec, or null for the standard initial setup
+    byte[] getPackedStartPosition(){
+        return startPosition;
+    }
+
+    BitBoard getBitBoard(){
+        return bitBoard;
+    }
+
+    // Independent copy of the current position, e.g. for a search running on another thread
+    public BitBoard copyPosition(){
+        return new BitBoard(bitBoard);
+    }
+
+    public String toFen(){
+        return Fen.toFen(bitBoard);
+    }
+
     public ChessPiece[][] getPieces(){
         ChessPiece[][] mat = new ChessPiece[board.getRows()][board.getColumns()];
 
-        for(int i = 0; i < board.getRows(); i++){
-            for(int j = 0; j < board.getColumns(); j++){
-                mat[i][j] = (ChessPiece) board.piece(i,j);
+        // Only the occupied squares are visited
+        for(int code = 0; code < 12; code++){
+            for(int i = 0; i < onBoardPieces.count(code); i++){
+                int square = onBoardPieces.square(code, i);
+                mat[7 - Bitboards.rank(square)][Bitboards.file(square)] = onBoardPieces.piece(code, i);
             }
         }
         return mat;
@@ -67,17 +204,63 @@ public class ChessMatch {
     public boolean[][] possibleMoves(ChessPosition sourcePosition){
         Position position = sourcePosition.toPosition();
         validateSourcePosition(position);
-        return board.piece(position).possibleMoves();
+        boolean[][] mat = new boolean[board.getRows()][board.getColumns()];
+        int from = Bitboards.square(position);
+        int n = MoveGenerator.generate(bitBoard, moves, 0);
+        for(int i = 0; i < n; i++){
+            if(Move.from(moves[i]) == from){
+                int to = Move.to(moves[i]);
+                mat[7 - Bitboards.rank(to)][Bitboards.file(to)] = true;
+            }
+        }
+        return mat;
+    }
+
+    // Packed legal moves (see chess.bitboard.Move) for the player to move
+    public int[] legalMoves(){
+        int n = MoveGenerator.generateLegal(bitBoard, moves, 0);
+        return Arrays.copyOf(moves, n);
+    }
+
+    public long perft(int depth){
+        return new Perft(bitBoard).count(depth);
+    }
+
+    public Map<String, Long> divide(int depth){
+        return new Perft(bitBoard).divide(depth);
     }
 
     public ChessPiece performChessMove(ChessPosition sourcePosition, ChessPosition targetPosition){
-        Position source = sourcePosition.toPosition();
-        Position target = targetPosition.toPosition();
+        return performChessMove(sourcePosition.toPosition(), targetPosition.toPosition(), "Q");
+    }
+
+    // Plays a packed move (see chess.bitboard.Move), promoting to the piece the move names
+    public ChessPiece performMove(int move){
+        String promotion = Move.isPromotion(move) ? PROMOTION_TYPES[Move.promotionType(move) - BitBoard.KNIGHT] : "Q";
+        return performChessMove(Bitboards.toPosition(Move.from(move)), Bitboards.toPosition(Move.to(move)), promotion);
+    }
+
+    // Resolves a SAN move such as "Nxe5+" or "e8=Q" against the current legal moves
+    public int parseSan(String san){
+        return San.parse(bitBoard, san, moves);
+    }
+
+    // Resolves a long algebraic move such as "e7e8q" against the current legal moves
+    public int parseUci(String uci){
+        return Uci.parse(bitBoard, uci, moves);
+    }
+
+    // SAN for a legal move in the current position
+    public String toSan(int move){
+        return San.toSan(bitBoard, move, moves);
+    }
+
+    private ChessPiece performChessMove(Position source, Position target, String promotion){
         validateSourcePosition(source);
         validateTargetPosition(source, target);
         Piece capturedPiece = makeMove(source, target);
 
-        if(testCheck(currentPlayer) || testIllegalCastling(source, target)){
+        if(testCheck(currentPlayer)){
             undoMove(source, target, capturedPiece);
             throw new ChessException("You can't put yourself in check");
         }
@@ -89,13 +272,16 @@ public class ChessMatch {
         if(movedPiece instanceof Pawn){
             if(target.getRow() == 0 || target.getRow() == 7){
                 promoted = (ChessPiece) board.piece(target);
-                promoted = replacePromotedPiece("Q");
+                promoted = promote(promotion);
             }
         }
 
-        check = testCheck(opponent(currentPlayer));
-        checkmate = testCheckmate(opponent(currentPlayer));
+        int move = bitBoard.lastMove();
+        if(promoted != null)
+            move = Move.promotion(Move.from(move), Move.to(move), pieceType(promoted), capturedPiece != null);
+        recordMove(move);
 
+        updateStatus(currentPlayer);
         if(checkmate) return null;
         nextTurn();
 
@@ -103,51 +289,43 @@ public class ChessMatch {
         if(movedPiece instanceof Pawn
                 && (target.getRow() == source.getRow() + 2 || target.getRow() == source.getRow() - 2))
             enPassantVulnerable = movedPiece;
+        else
+            enPassantVulnerable = null;
 
         return (ChessPiece)capturedPiece;
     }
 
-    private boolean testIllegalCastling(Position source, Position target) {
-
-        ChessPiece movedPiece = (ChessPiece) board.piece(target);
-
-        boolean isIllegal = false;
-
-        // position in-between
-        Position inBet = new Position(source.getRow(),
-                (source.getColumn() > target.getColumn()) ? source.getColumn() - 1 : target.getColumn() - 1);
-
-        // identifies if a king has moved
-        if (movedPiece instanceof King) {
-            // identifies if a king has castled, once it moved two squares away
-            if (Math.abs(source.getColumn() - target.getColumn()) == 2) {
-                // checks if the position passed through by the king is attacked
-                Piece capturedPiece = makeMove(target, inBet);
-
-                if (testCheck(currentPlayer)) {
-                    isIllegal = true;
-                }
-
-
-                undoMove(target, inBet, capturedPiece);
-            }
+    public ChessPiece replacePromotedPiece(String type) {
+        if(promoted == null) throw new IllegalStateException("There is no piece to be promoted");
+        promoted = promote(type);
+        int last = moveHistory[moveCount - 1];
+        moveHistory[moveCount - 1] = Move.promotion(Move.from(last), Move.to(last), pieceType(promoted), Move.isCapture(last));
+
+        // The new piece can change whether the opponent is in check or mated
+        boolean wasCheckmate = checkmate;
+        updateStatus(wasCheckmate ? currentPlayer : opponent(currentPlayer));
+        if(wasCheckmate && !checkmate) nextTurn();
+        else if(!wasCheckmate && checkmate){
+            turn--;
+            currentPlayer = opponent(currentPlayer);
         }
-        return isIllegal;
+        return promoted;
     }
 
-
-        public ChessPiece replacePromotedPiece(String type) {
-        if(promoted == null) throw new IllegalStateException("There is no piece to be promoted");
+    private ChessPiece promote(String type){
         if(!type.equals("B") && !type.equals("N") && !type.equals("R") && !type.equals("Q") )
             return promoted;
 
         Position pos = promoted.getChessPosition().toPosition();
-        Piece p = board.removePiece(pos);
-        onBoardPieces.remove(p);
+        int square = Bitboards.square(pos);
+        board.removePiece(pos);
+        onBoardPieces.remove(square);
+        bitBoard.removePiece(square);
 
         ChessPiece newPiece = newPiece(type, promoted.getColor());
         board.placePiece(newPiece, pos);
-        onBoardPieces.add(newPiece);
+        onBoardPieces.add(newPiece, pieceCode(newPiece), square);
+        bitBoard.addPiece(colorIndex(newPiece.getColor()), pieceType(newPiece), square);
 
         return newPiece;
     }
@@ -159,15 +337,27 @@ public class ChessMatch {
         return new Queen(board, color);
     }
 
+    private ChessPiece newPiece(int type, Color color){
+        if(type == BitBoard.PAWN) return new Pawn(board, color, this);
+        if(type == BitBoard.KNIGHT) return new Knight(board, color);
+        if(type == BitBoard.BISHOP) return new Bishop(board, color);
+        if(type == BitBoard.ROOK) return new Rook(board, color);
+        if(type == BitBoard.QUEEN) return new Queen(board, color);
+        return new King(board, color, this);
+    }
+
     private Piece makeMove(Position source, Position target){
+        bitBoard.makeMove(toMove(source, target));
+
         ChessPiece p = (ChessPiece) board.removePiece(source);
         p.increaseMoveCount();
         Piece capturedPiece = board.removePiece(target);
 
         if(capturedPiece != null){
-            onBoardPieces.remove(capturedPiece);
+            onBoardPieces.remove(Bitboards.square(target));
             capturedPieces.add(capturedPiece);
         }
+        onBoardPieces.move(Bitboards.square(source), Bitboards.square(target));
 
         // Castling
         // King's side
@@ -176,6 +366,7 @@ public class ChessMatch {
             Position targetT = new Position(source.getRow(), source.getColumn() + 1);
             ChessPiece rook = (ChessPiece) board.removePiece(sourceT);
             board.placePiece(rook, targetT);
+            onBoardPieces.move(Bitboards.square(sourceT), Bitboards.square(targetT));
             rook.increaseMoveCount();
         }
 
@@ -185,6 +376,7 @@ public class ChessMatch {
             Position targetT = new Position(source.getRow(), source.getColumn() - 1);
             ChessPiece rook = (ChessPiece) board.removePiece(sourceT);
             board.placePiece(rook, targetT);
+            onBoardPieces.move(Bitboards.square(sourceT), Bitboards.square(targetT));
             rook.increaseMoveCount();
         }
 
@@ -196,7 +388,7 @@ public class ChessMatch {
                 else pawnPosition = new Position(target.getRow() - 1, target.getColumn());
                 capturedPiece = board.removePiece(pawnPosition);
                 capturedPieces.add(capturedPiece);
-                onBoardPieces.remove(capturedPiece);
+                onBoardPieces.remove(Bitboards.square(pawnPosition));
             }
         }
 
@@ -204,15 +396,34 @@ public class ChessMatch {
         return capturedPiece;
     }
 
+    // Packs a board move for the bitboard, flagging the special moves makeMove recognizes
+    private int toMove(Position source, Position target){
+        ChessPiece p = (ChessPiece) board.piece(source);
+        int flags = Move.QUIET;
+        if(p instanceof King && target.getColumn() == source.getColumn() + 2) flags = Move.KING_CASTLE;
+        else if(p instanceof King && target.getColumn() == source.getColumn() - 2) flags = Move.QUEEN_CASTLE;
+        else if(p instanceof Pawn && Math.abs(target.getRow() - source.getRow()) == 2) flags = Move.DOUBLE_PUSH;
+        else if(p instanceof Pawn && source.getColumn() != target.getColumn() && board.piece(target) == null)
+            flags = Move.EN_PASSANT;
+        else if(board.piece(target) != null) flags = Move.CAPTURE;
+        return Move.of(Bitboards.square(source), Bitboards.square(target), flags);
+    }
+
     private void undoMove(Position source, Position target, Piece capturedPiece){
         ChessPiece p = (ChessPiece) board.removePiece(target);
         p.decreaseMoveCount();
         board.placePiece(p, source);
+        onBoardPieces.move(Bitboards.square(target), Bitboards.square(source));
+        boolean enPassant = Move.flags(bitBoard.lastMove()) == Move.EN_PASSANT;
+        bitBoard.undoMove();
 
         if(capturedPiece != null){
             board.placePiece(capturedPiece, target);
-            capturedPieces.remove(capturedPiece);
-            onBoardPieces.add(capturedPiece);
+            capturedPieces.remove(capturedPieces.size() - 1);
+            int square = Bitboards.square(target);
+            // An en passant victim goes back beside the target square, not onto it
+            if(enPassant) square ^= 8;
+            onBoardPieces.add((ChessPiece) capturedPiece, pieceCode((ChessPiece) capturedPiece), square);
         }
 
         // Castling
@@ -222,6 +433,7 @@ public class ChessMatch {
             Position targetT = new Position(source.getRow(), source.getColumn() + 1);
             ChessPiece rook = (ChessPiece) board.removePiece(targetT);
             board.placePiece(rook, sourceT);
+            onBoardPieces.move(Bitboards.square(targetT), Bitboards.square(sourceT));
             rook.decreaseMoveCount();
         }
 
@@ -231,12 +443,13 @@ public class ChessMatch {
             Position targetT = new Position(source.getRow(), source.getColumn() - 1);
             ChessPiece rook = (ChessPiece) board.removePiece(targetT);
             board.placePiece(rook, sourceT);
+            onBoardPieces.move(Bitboards.square(targetT), Bitboards.square(sourceT));
             rook.decreaseMoveCount();
         }
 
         // En passant
         if(p instanceof Pawn){
-            if(source.getColumn() != target.getColumn() && capturedPiece == enPassantVulnerable){
+            if(enPassant && capturedPiece != null){
                 ChessPiece pawn = (ChessPiece) board.removePiece(target);
                 Position pawnPosition;
                 if(p.getColor() == Color.WHITE) pawnPosition = new Position(3, target.getColumn());
@@ -247,83 +460,108 @@ public class ChessMatch {
     }
 
     private void validateSourcePosition(Position position){
-        if(!board.thereIsAPiece(position)) throw new ChessException("There is no piece on source position");
-        if(currentPlayer != ((ChessPiece)board.piece(position)).getColor())
+        int piece = bitBoard.pieceAt(Bitboards.square(position));
+        if(piece == BitBoard.NO_PIECE) throw new ChessException("There is no piece on source position");
+        if(BitBoard.colorOf(piece) != colorIndex(currentPlayer))
             throw new ChessException("Chosen piece color doesn't match the player");
-        if(!board.piece(position).isThereAnyPossibleMove())
+        if(findMove(Bitboards.square(position), BitBoard.NO_SQUARE) == Move.NONE)
             throw new ChessException("There are no possible moves for the chosen piece");
     }
 
     private void validateTargetPosition(Position source, Position target) {
-        if(!board.piece(source).possibleMove(target))
+        if(findMove(Bitboards.square(source), Bitboards.square(target)) == Move.NONE)
             throw new ChessException("Chosen piece can't move to target position");
     }
 
+    // First pseudo-legal move from the given square, to any square when target is NO_SQUARE
+    private int findMove(int source, int target){
+        int n = MoveGenerator.generate(bitBoard, moves, 0);
+        for(int i = 0; i < n; i++){
+            if(Move.from(moves[i]) == source && (target == BitBoard.NO_SQUARE || Move.to(moves[i]) == target))
+                return moves[i];
+        }
+        return Move.NONE;
+    }
+
+    // Check, checkmate and stalemate for the opponent of the player who just moved
+    private void updateStatus(Color mover){
+        check = testCheck(opponent(mover));
+        boolean noLegalMoves = MoveGenerator.generateLegal(bitBoard, moves, 0) == 0;
+        checkmate = check && noLegalMoves;
+        stalemate = !check && noLegalMoves;
+    }
+
+    private void recordMove(int move){
+        if(moveCount == moveHistory.length) moveHistory = Arrays.copyOf(moveHistory, moveCount * 2);
+        moveHistory[moveCount++] = move;
+    }
+
     private void nextTurn(){
         turn++;
         currentPlayer = (currentPlayer == Color.WHITE) ? Color.BLACK : Color.WHITE;
     }
 
     private void placeNewPiece(char column, int row, ChessPiece piece){
-        board.placePiece(piece, new ChessPosition(row, column).toPosition());
-        onBoardPieces.add(piece);
+        Position position = new ChessPosition(row, column).toPosition();
+        board.placePiece(piece, position);
+        onBoardPieces.add(piece, pieceCode(piece), Bitboards.square(position));
+        bitBoard.addPiece(colorIndex(piece.getColor()), pieceType(piece), Bitboards.square(position));
     }
 
-    private Color opponent(Color color){
-        return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    private static int colorIndex(Color color){
+        return (color == Color.WHITE) ? BitBoard.WHITE : BitBoard.BLACK;
     }
 
-    private ChessPiece king(Color color){
-        List<Piece> list = onBoardPieces.stream()
-                .filter(x -> ((ChessPiece)x).getColor() == color).collect(Collectors.toList());
+    private static int pieceType(ChessPiece piece){
+        if(piece instanceof Pawn) return BitBoard.PAWN;
+        if(piece instanceof Knight) return BitBoard.KNIGHT;
+        if(piece instanceof Bishop) return BitBoard.BISHOP;
+        if(piece instanceof Rook) return BitBoard.ROOK;
+        if(piece instanceof Queen) return BitBoard.QUEEN;
+        return BitBoard.KING;
+    }
 
-        for (Piece p : list) {
-            if(p instanceof King){
-                return (ChessPiece) p;
-            }
-        }
-        throw new IllegalStateException("There is no " + color + " king on the board.");
+    private static int pieceCode(ChessPiece piece){
+        return colorIndex(piece.getColor()) * 6 + pieceType(piece);
+    }
+
+    private Color opponent(Color color){
+        return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
     }
 
     private boolean testCheck(Color color){
-        Position kingPosition = king(color).getChessPosition().toPosition();
-        List<Piece> opponentPieces = onBoardPieces.stream()
-                .filter(x -> ((ChessPiece)x).getColor() == opponent(color)).collect(Collectors.toList());
+        int king = onBoardPieces.kingSquare(colorIndex(color));
+        return king != BitBoard.NO_SQUARE && bitBoard.isSquareAttacked(king, colorIndex(opponent(color)));
+    }
 
-        for(Piece p : opponentPieces){
-            boolean[][] mat = p.possibleMoves();
-            if(mat[kingPosition.getRow()][kingPosition.getColumn()]) return true;
-        }
-        return false;
-    }
-
-    private boolean testCheckmate(Color color){
-        if(!testCheck(color)) return false;
-
-        // Creates a list of all pieces of the said color
-        List<Piece> list = onBoardPieces.stream()
-                .filter(x -> ((ChessPiece)x).getColor() == color).collect(Collectors.toList());
-
-        for(Piece p : list){
-            boolean[][] mat = p.possibleMoves();
-
-            for (int i = 0; i < board.getRows(); i++) {
-                for (int j = 0; j < board.getColumns(); j++) {
-                    if(mat[i][j]){
-                        Position source = ((ChessPiece)p).getChessPosition().toPosition();
-                        Position target = new Position(i, j);
-                        Piece capturedPiece = makeMove(source, target);
-                        boolean testCheck = testCheck(color);
-                        undoMove(source, target, capturedPiece);
-                        if(!testCheck) return false;
-                    }
-                }
-            }
+    // Builds the piece objects for a position already loaded into the bitboard. Pieces that can no
+    // longer double push or castle are marked as moved so their own possibleMoves() agree
+    private void fenSetup(){
+        int rights = bitBoard.getCastlingRights();
+        for(int sq = 0; sq < 64; sq++){
+            int piece = bitBoard.pieceAt(sq);
+            if(piece == BitBoard.NO_PIECE) continue;
+            int color = BitBoard.colorOf(piece);
+            int type = BitBoard.typeOf(piece);
+            ChessPiece p = newPiece(type, color == BitBoard.WHITE ? Color.WHITE : Color.BLACK);
+            board.placePiece(p, Bitboards.toPosition(sq));
+            onBoardPieces.add(p, piece, sq);
+
+            boolean unmoved;
+            int homeRank = (color == BitBoard.WHITE) ? 0 : 7;
+            if(type == BitBoard.PAWN) unmoved = Bitboards.rank(sq) == ((color == BitBoard.WHITE) ? 1 : 6);
+            else if(type == BitBoard.KING) unmoved = (rights & (color == BitBoard.WHITE ? 3 : 12)) != 0;
+            else if(type == BitBoard.ROOK && sq == Bitboards.square(homeRank, 7))
+                unmoved = (rights & (color == BitBoard.WHITE ? BitBoard.WHITE_KING_SIDE : BitBoard.BLACK_KING_SIDE)) != 0;
+            else if(type == BitBoard.ROOK && sq == Bitboards.square(homeRank, 0))
+                unmoved = (rights & (color == BitBoard.WHITE ? BitBoard.WHITE_QUEEN_SIDE : BitBoard.BLACK_QUEEN_SIDE)) != 0;
+            else unmoved = type != BitBoard.ROOK;
+            if(!unmoved) p.increaseMoveCount();
         }
-        return true;
     }
 
     private void initialSetup(){
+        bitBoard.setCastlingRights(BitBoard.ALL_CASTLING);
         placeNewPiece('e', 1, new King(board, Color.WHITE, this));
         placeNewPiece('d', 1, new Queen(board, Color.WHITE));
         placeNewPiece('c', 1, new Bishop(board, Color.WHITE));
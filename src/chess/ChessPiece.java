@@ -3,12 +3,18 @@ package chess;
 import board.Board;
 import board.Piece;
 import board.Position;
+import chess.bitboard.Bitboards;
 
 public abstract class ChessPiece extends Piece {
 
     private Color color;
     private int moveCount;
 
+    // Row and column steps
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final int[][] QUEEN_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
     public ChessPiece(Board board, Color color) {
         super(board);
         this.color = color;
@@ -38,4 +44,63 @@ public abstract class ChessPiece extends Piece {
         ChessPiece p = (ChessPiece)getBoard().piece(position);
         return p != null && p.getColor() != color;
     }
+
+    // Moves along ranks and files, diagonals, or both. The attack tables only describe the 8x8 board; on
+    // any other the lines are walked position by position
+    protected boolean[][] rookMoves(){
+        if(!isStandardBoard()) return walkLines(ROOK_DIRECTIONS);
+        return slidingMoves(Bitboards.rookAttacks(square(), occupied()));
+    }
+
+    protected boolean[][] bishopMoves(){
+        if(!isStandardBoard()) return walkLines(BISHOP_DIRECTIONS);
+        return slidingMoves(Bitboards.bishopAttacks(square(), occupied()));
+    }
+
+    protected boolean[][] queenMoves(){
+        if(!isStandardBoard()) return walkLines(QUEEN_DIRECTIONS);
+        return slidingMoves(Bitboards.queenAttacks(square(), occupied()));
+    }
+
+    private boolean isStandardBoard(){
+        return getBoard().getRows() == 8 && getBoard().getColumns() == 8;
+    }
+
+    // Bitboard square of this piece, and the board's occupancy with rank 1 in the low byte: board rows run
+    // from the 8th rank down, so the rows are byte-swapped
+    private int square(){
+        return Bitboards.square(position);
+    }
+
+    private long occupied(){
+        return Long.reverseBytes(getBoard().getOccupancy());
+    }
+
+    // Moves of a sliding piece given its attack set: every attacked square that is empty or holds an opponent piece
+    private boolean[][] slidingMoves(long attacks){
+        boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
+        for(long b = attacks; b != 0; b &= b - 1){
+            int sq = Long.numberOfTrailingZeros(b);
+            int row = 7 - Bitboards.rank(sq);
+            int column = Bitboards.file(sq);
+            ChessPiece p = (ChessPiece)getBoard().piece(row, column);
+            if(p == null || p.getColor() != color) mat[row][column] = true;
+        }
+        return mat;
+    }
+
+    // Steps along each direction up to the first piece, which can be taken if it is an opponent's
+    private boolean[][] walkLines(int[][] directions){
+        boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
+        Position p = new Position(0, 0);
+        for(int[] d : directions){
+            p.setValues(position.getRow() + d[0], position.getColumn() + d[1]);
+            while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)){
+                mat[p.getRow()][p.getColumn()] = true;
+                p.setValues(p.getRow() + d[0], p.getColumn() + d[1]);
+            }
+            if(getBoard().positionExists(p) && isThereOpponentPiece(p)) mat[p.getRow()][p.getColumn()] = true;
+        }
+        return mat;
+    }
 }
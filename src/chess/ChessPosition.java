@@ -30,6 +30,10 @@ public class ChessPosition {
         return new ChessPosition(8 - position.getRow(), (char)('a' + position.getColumn()));
     }
 
+    public static ChessPosition fromSquare(int square){
+        return new ChessPosition(square / 8 + 1, (char)('a' + square % 8));
+    }
+
     @Override
     public String toString(){
         return "" + column + row;
@@ -0,0 +1,26 @@
+package chess;
+
+public enum GameResult {
+    IN_PROGRESS,
+    WHITE_WINS,
+    BLACK_WINS,
+    STALEMATE,
+    THREEFOLD_REPETITION,
+    FIFTY_MOVE_RULE,
+    INSUFFICIENT_MATERIAL;
+
+    public boolean isOver(){
+        return this != IN_PROGRESS;
+    }
+
+    public boolean isDraw(){
+        return this != IN_PROGRESS && this != WHITE_WINS && this != BLACK_WINS;
+    }
+
+    // PGN result tag
+    public String toPgn(){
+        if(this == WHITE_WINS) return "1-0";
+        if(this == BLACK_WINS) return "0-1";
+        return isDraw() ? "1/2-1/2" : "*";
+    }
+}
@@ -0,0 +1,98 @@
+package chess;
+
+import board.BoardException;
+import chess.bitboard.BitBoard;
+import chess.bitboard.Fen;
+import chess.bitboard.Move;
+import chess.bitboard.PositionCodec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+// Compact binary checkpoint of a match:
+//   version            1 byte
+//   flags              1 byte, bit 0 set when the match didn't start from the initial setup
+//   start position     PositionCodec, only with that flag
+//   current position   PositionCodec
+//   move count         2 bytes
+//   moves              2 bytes each (see chess.bitboard.Move)
+// Restoring plays the moves straight onto a bitboard, without move generation or status checks, so the
+// position keeps its history for repetition detection; the stored current position then guards against a
+// corrupt or mismatched move list. The pieces are set up from the position reached, as for FEN
+public final class MatchSnapshot {
+
+    private static final byte VERSION = 1;
+    private static final int CUSTOM_START = 1;
+    private static final int MAX_MOVES = 0xFFFF;
+
+    private MatchSnapshot() {
+    }
+
+    public static int size(ChessMatch chessMatch){
+        byte[] start = chessMatch.getPackedStartPosition();
+        return 2 + (start == null ? 0 : start.length) + PositionCodec.size(chessMatch.getBitBoard())
+                + 2 + 2 * chessMatch.getMoveCount();
+    }
+
+    public static ByteBuffer toBuffer(ChessMatch chessMatch){
+        ByteBuffer buffer = ByteBuffer.allocate(size(chessMatch));
+        write(chessMatch, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    public static void write(ChessMatch chessMatch, ByteBuffer buffer){
+        int count = chessMatch.getMoveCount();
+        if(count > MAX_MOVES) throw new ChessException("Too many moves for a snapshot: " + count);
+        byte[] start = chessMatch.getPackedStartPosition();
+        buffer.put(VERSION);
+        buffer.put((byte) (start == null ? 0 : CUSTOM_START));
+        if(start != null) buffer.put(start);
+        PositionCodec.write(chessMatch.getBitBoard(), buffer);
+        buffer.putShort((short) count);
+        for(int move : chessMatch.getMoveHistory()) buffer.putShort((short) move);
+    }
+
+    public static ChessMatch read(ByteBuffer buffer){
+        try{
+            byte version = buffer.get();
+            if(version != VERSION) throw new ChessException("Unsupported snapshot version " + version);
+            int flags = buffer.get();
+            byte[] start = null;
+            BitBoard position;
+            if((flags & CUSTOM_START) != 0){
+                ByteBuffer image = buffer.duplicate();
+                position = PositionCodec.read(buffer);
+                start = new byte[buffer.position() - image.position()];
+                image.get(start);
+            }
+            else position = Fen.parse(Fen.START_POSITION);
+            BitBoard current = PositionCodec.read(buffer);
+            int count = buffer.getShort() & 0xFFFF;
+            int[] moves = new int[count];
+            for(int i = 0; i < count; i++){
+                moves[i] = buffer.getShort() & 0xFFFF;
+                if(!playable(position, moves[i])) throw new ChessException("Snapshot moves don't lead to its position");
+                position.makeMove(moves[i]);
+            }
+            if(position.getKey() != current.getKey())
+                throw new ChessException("Snapshot moves don't lead to its position");
+            return new ChessMatch(start, position, moves, count);
+        }
+        catch(BufferUnderflowException e){
+            throw new ChessException("Invalid snapshot: truncated");
+        }
+        catch(BoardException e){
+            throw new ChessException("Snapshot moves don't lead to its position");
+        }
+    }
+
+    // Just enough checking to keep makeMove on the board; whether the moves were legal shows in the final key
+    private static boolean playable(BitBoard position, int move){
+        int piece = position.pieceAt(Move.from(move));
+        if(piece == BitBoard.NO_PIECE || BitBoard.colorOf(piece) != position.getSideToMove()) return false;
+        if(!Move.isCastling(move)) return true;
+        int home = position.getSideToMove() == BitBoard.WHITE ? 4 : 60;
+        return Move.from(move) == home && (Move.to(move) == home + 2 || Move.to(move) == home - 2);
+    }
+}
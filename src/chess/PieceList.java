@@ -0,0 +1,73 @@
+package chess;
+
+import chess.bitboard.BitBoard;
+
+import java.util.Arrays;
+
+// Pieces on the board grouped by color and type, indexed by color * 6 + type as on the bitboard. Every
+// list entry keeps its square and every occupied square keeps its entry's index, so adding, removing and
+// moving a piece are O(1): a removed entry is filled with the last one of its list
+final class PieceList {
+
+    private ChessPiece[][] pieces = new ChessPiece[12][10];
+    private int[][] squares = new int[12][10];
+    private final int[] counts = new int[12];
+    // Indexed by square: the list and the position in it of the piece standing there
+    private final int[] listAt = new int[64];
+    private final int[] indexAt = new int[64];
+
+    PieceList() {
+        Arrays.fill(listAt, BitBoard.NO_PIECE);
+    }
+
+    void add(ChessPiece piece, int code, int square){
+        int n = counts[code];
+        // Only positions set up from FEN can have more than ten pieces of a kind
+        if(n == pieces[code].length){
+            pieces[code] = Arrays.copyOf(pieces[code], n * 2);
+            squares[code] = Arrays.copyOf(squares[code], n * 2);
+        }
+        pieces[code][n] = piece;
+        squares[code][n] = square;
+        counts[code] = n + 1;
+        listAt[square] = code;
+        indexAt[square] = n;
+    }
+
+    void remove(int square){
+        int code = listAt[square];
+        int i = indexAt[square];
+        int last = --counts[code];
+        pieces[code][i] = pieces[code][last];
+        squares[code][i] = squares[code][last];
+        indexAt[squares[code][i]] = i;
+        pieces[code][last] = null;
+        listAt[square] = BitBoard.NO_PIECE;
+    }
+
+    void move(int from, int to){
+        int code = listAt[from];
+        int i = indexAt[from];
+        squares[code][i] = to;
+        listAt[from] = BitBoard.NO_PIECE;
+        listAt[to] = code;
+        indexAt[to] = i;
+    }
+
+    // Pieces of one kind, color * 6 + type, are at indexes 0 to count - 1 in no particular order
+    int count(int code){
+        return counts[code];
+    }
+
+    ChessPiece piece(int code, int i){
+        return pieces[code][i];
+    }
+
+    int square(int code, int i){
+        return squares[code][i];
+    }
+
+    int kingSquare(int color){
+        return counts[color * 6 + BitBoard.KING] == 0 ? BitBoard.NO_SQUARE : squares[color * 6 + BitBoard.KING][0];
+    }
+}
@@ -0,0 +1,432 @@
+package chess.bitboard;
+
+import board.BoardException;
+
+import java.util.Arrays;
+
+public class BitBoard {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int NO_PIECE = -1;
+    public static final int NO_SQUARE = -1;
+
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // Castling rights kept after a move touches the square (king or rook leaving, rook captured)
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[0] &= ~WHITE_QUEEN_SIDE;
+        CASTLING_MASK[7] &= ~WHITE_KING_SIDE;
+        CASTLING_MASK[4] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        CASTLING_MASK[56] &= ~BLACK_QUEEN_SIDE;
+        CASTLING_MASK[63] &= ~BLACK_KING_SIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+    }
+
+    // One bitboard per color and piece type, indexed by color * 6 + type
+    private final long[] pieces = new long[12];
+    private final long[] occupancy = new long[2];
+    private long occupied;
+
+    // Piece code (color * 6 + type) on each square, NO_PIECE when empty
+    private final int[] mailbox = new int[64];
+    private final int[] kingSquares = {NO_SQUARE, NO_SQUARE};
+
+    private int sideToMove = WHITE;
+    private int castlingRights;
+    private int enPassantSquare = NO_SQUARE;
+    private long key = Zobrist.CASTLING[0];
+    // Hash of the pawns alone, for caching pawn structure evaluation
+    private long pawnKey;
+    // Running material and piece-square sums (see PieceSquareTables) and the game phase
+    private int middlegameScore;
+    private int endgameScore;
+    private int phase;
+    // Plies since the last capture or pawn move, and the move number shown in FEN
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+
+    // Undo information, one entry per move made
+    private int ply;
+    private int[] moveHistory = new int[256];
+    private int[] capturedHistory = new int[256];
+    private int[] castlingHistory = new int[256];
+    private int[] enPassantHistory = new int[256];
+    private long[] keyHistory = new long[256];
+    private int[] halfmoveHistory = new int[256];
+
+    public BitBoard() {
+        Arrays.fill(mailbox, NO_PIECE);
+    }
+
+    public BitBoard(BitBoard other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.occupancy, 0, occupancy, 0, occupancy.length);
+        System.arraycopy(other.mailbox, 0, mailbox, 0, mailbox.length);
+        kingSquares[WHITE] = other.kingSquares[WHITE];
+        kingSquares[BLACK] = other.kingSquares[BLACK];
+        occupied = other.occupied;
+        sideToMove = other.sideToMove;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        key = other.key;
+        pawnKey = other.pawnKey;
+        middlegameScore = other.middlegameScore;
+        endgameScore = other.endgameScore;
+        phase = other.phase;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        ply = other.ply;
+        moveHistory = other.moveHistory.clone();
+        capturedHistory = other.capturedHistory.clone();
+        castlingHistory = other.castlingHistory.clone();
+        enPassantHistory = other.enPassantHistory.clone();
+        keyHistory = other.keyHistory.clone();
+        halfmoveHistory = other.halfmoveHistory.clone();
+    }
+
+    public static int piece(int color, int type){
+        return color * 6 + type;
+    }
+
+    public static int colorOf(int piece){
+        return piece / 6;
+    }
+
+    public static int typeOf(int piece){
+        return piece % 6;
+    }
+
+    public static int opponent(int color){
+        return color ^ 1;
+    }
+
+    public long pieces(int color, int type){
+        return pieces[color * 6 + type];
+    }
+
+    public long occupancy(int color){
+        return occupancy[color];
+    }
+
+    public long occupied(){
+        return occupied;
+    }
+
+    public int pieceAt(int square){
+        return mailbox[square];
+    }
+
+    public boolean isEmpty(int square){
+        return mailbox[square] == NO_PIECE;
+    }
+
+    public int kingSquare(int color){
+        return kingSquares[color];
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(int sideToMove) {
+        if(this.sideToMove != sideToMove){
+            key ^= Zobrist.SIDE ^ enPassantKey(enPassantSquare, this.sideToMove) ^ enPassantKey(enPassantSquare, sideToMove);
+        }
+        this.sideToMove = sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int castlingRights) {
+        key ^= Zobrist.CASTLING[this.castlingRights] ^ Zobrist.CASTLING[castlingRights];
+        this.castlingRights = castlingRights;
+    }
+
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public void setEnPassantSquare(int enPassantSquare) {
+        key ^= enPassantKey(this.enPassantSquare, sideToMove) ^ enPassantKey(enPassantSquare, sideToMove);
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    // Uses the pawn entries of Zobrist.PIECES, so it only changes when a pawn appears, disappears or moves
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    // Full recomputation, the incrementally maintained key must always match it
+    public long computeKey(){
+        long k = Zobrist.CASTLING[castlingRights] ^ enPassantKey(enPassantSquare, sideToMove);
+        if(sideToMove == BLACK) k ^= Zobrist.SIDE;
+        for(int sq = 0; sq < 64; sq++){
+            if(mailbox[sq] != NO_PIECE) k ^= Zobrist.PIECES[mailbox[sq]][sq];
+        }
+        return k;
+    }
+
+    // The en passant file only goes into the key when a pawn of the side to move can take there; otherwise the
+    // position is the same under the rules as without it, and must get the same key for the table and repetitions
+    private long enPassantKey(int square, int color){
+        if(square == NO_SQUARE || (Bitboards.PAWN_ATTACKS[opponent(color)][square] & pieces(color, PAWN)) == 0) return 0;
+        return Zobrist.enPassant(square);
+    }
+
+    // Material plus piece-square score from white's point of view, kept up to date by every board change
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    // Sum of PieceSquareTables.PHASE_WEIGHTS over the pieces on the board, MAX_PHASE at the start
+    public int getPhase() {
+        return phase;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public int lastMove(){
+        return ply == 0 ? Move.NONE : moveHistory[ply - 1];
+    }
+
+    public void addPiece(int color, int type, int square){
+        if(mailbox[square] != NO_PIECE) throw new BoardException("There is already a piece on square " + square);
+        long b = 1L << square;
+        int piece = color * 6 + type;
+        pieces[piece] |= b;
+        occupancy[color] |= b;
+        occupied |= b;
+        mailbox[square] = piece;
+        key ^= Zobrist.PIECES[piece][square];
+        if(type == PAWN) pawnKey ^= Zobrist.PIECES[piece][square];
+        middlegameScore += PieceSquareTables.MIDDLEGAME[piece][square];
+        endgameScore += PieceSquareTables.ENDGAME[piece][square];
+        phase += PieceSquareTables.PHASE_WEIGHTS[type];
+        if(type == KING) kingSquares[color] = square;
+    }
+
+    public int removePiece(int square){
+        int piece = mailbox[square];
+        if(piece == NO_PIECE) return NO_PIECE;
+        long b = ~(1L << square);
+        pieces[piece] &= b;
+        occupancy[piece / 6] &= b;
+        occupied &= b;
+        mailbox[square] = NO_PIECE;
+        key ^= Zobrist.PIECES[piece][square];
+        if(piece % 6 == PAWN) pawnKey ^= Zobrist.PIECES[piece][square];
+        middlegameScore -= PieceSquareTables.MIDDLEGAME[piece][square];
+        endgameScore -= PieceSquareTables.ENDGAME[piece][square];
+        phase -= PieceSquareTables.PHASE_WEIGHTS[piece % 6];
+        if(piece % 6 == KING) kingSquares[piece / 6] = NO_SQUARE;
+        return piece;
+    }
+
+    public void movePiece(int from, int to){
+        int piece = mailbox[from];
+        if(piece == NO_PIECE) throw new BoardException("There is no piece on square " + from);
+        if(mailbox[to] != NO_PIECE) throw new BoardException("There is already a piece on square " + to);
+        long fromTo = (1L << from) | (1L << to);
+        pieces[piece] ^= fromTo;
+        occupancy[piece / 6] ^= fromTo;
+        occupied ^= fromTo;
+        mailbox[from] = NO_PIECE;
+        mailbox[to] = piece;
+        key ^= Zobrist.PIECES[piece][from] ^ Zobrist.PIECES[piece][to];
+        if(piece % 6 == PAWN) pawnKey ^= Zobrist.PIECES[piece][from] ^ Zobrist.PIECES[piece][to];
+        middlegameScore += PieceSquareTables.MIDDLEGAME[piece][to] - PieceSquareTables.MIDDLEGAME[piece][from];
+        endgameScore += PieceSquareTables.ENDGAME[piece][to] - PieceSquareTables.ENDGAME[piece][from];
+        if(piece % 6 == KING) kingSquares[piece / 6] = to;
+    }
+
+    public void makeMove(int move){
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+        int color = colorOf(mailbox[from]);
+
+        if(ply == moveHistory.length) growHistory();
+        moveHistory[ply] = move;
+        castlingHistory[ply] = castlingRights;
+        enPassantHistory[ply] = enPassantSquare;
+        keyHistory[ply] = key;
+        halfmoveHistory[ply] = halfmoveClock;
+        // Taken off against the board it was put on with
+        long oldEnPassantKey = enPassantKey(enPassantSquare, sideToMove);
+
+        int captured;
+        if(flags == Move.EN_PASSANT) captured = removePiece(to ^ 8);
+        else captured = removePiece(to);
+        capturedHistory[ply] = captured;
+        ply++;
+        if(captured != NO_PIECE || typeOf(mailbox[from]) == PAWN) halfmoveClock = 0;
+        else halfmoveClock++;
+        if(sideToMove == BLACK) fullmoveNumber++;
+
+        movePiece(from, to);
+
+        if(flags == Move.KING_CASTLE) movePiece(to + 1, to - 1);
+        else if(flags == Move.QUEEN_CASTLE) movePiece(to - 2, to + 1);
+        else if(Move.isPromotion(move)){
+            removePiece(to);
+            addPiece(color, Move.promotionType(move), to);
+        }
+
+        int newEnPassant = (flags == Move.DOUBLE_PUSH) ? (from + to) >>> 1 : NO_SQUARE;
+        int newCastling = castlingRights & CASTLING_MASK[from] & CASTLING_MASK[to];
+        key ^= oldEnPassantKey ^ enPassantKey(newEnPassant, sideToMove ^ 1)
+                ^ Zobrist.CASTLING[castlingRights] ^ Zobrist.CASTLING[newCastling] ^ Zobrist.SIDE;
+        enPassantSquare = newEnPassant;
+        castlingRights = newCastling;
+        sideToMove ^= 1;
+    }
+
+    public void undoMove(){
+        if(ply == 0) throw new BoardException("There is no move to undo");
+        ply--;
+        int move = moveHistory[ply];
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+
+        sideToMove ^= 1;
+        if(sideToMove == BLACK) fullmoveNumber--;
+        halfmoveClock = halfmoveHistory[ply];
+        castlingRights = castlingHistory[ply];
+        enPassantSquare = enPassantHistory[ply];
+
+        if(Move.isPromotion(move)){
+            int color = colorOf(removePiece(to));
+            addPiece(color, PAWN, to);
+        }
+        else if(flags == Move.KING_CASTLE) movePiece(to - 1, to + 1);
+        else if(flags == Move.QUEEN_CASTLE) movePiece(to + 1, to - 2);
+
+        movePiece(to, from);
+
+        int captured = capturedHistory[ply];
+        if(captured != NO_PIECE){
+            int square = (flags == Move.EN_PASSANT) ? to ^ 8 : to;
+            addPiece(colorOf(captured), typeOf(captured), square);
+        }
+        key = keyHistory[ply];
+    }
+
+    // Earlier occurrences of the current position. Only positions since the last capture or pawn move can
+    // repeat, and only every other one has the same side to move, so at most halfmoveClock / 2 keys are compared.
+    // A position can't come back in fewer than four plies
+    public int repetitions(){
+        int count = 0;
+        int oldest = Math.max(0, ply - halfmoveClock);
+        for(int i = ply - 4; i >= oldest; i -= 2){
+            if(keyHistory[i] == key) count++;
+        }
+        return count;
+    }
+
+    // Stops at the first earlier occurrence, which is all the search needs
+    public boolean isRepetition(){
+        int oldest = Math.max(0, ply - halfmoveClock);
+        for(int i = ply - 4; i >= oldest; i -= 2){
+            if(keyHistory[i] == key) return true;
+        }
+        return false;
+    }
+
+    public boolean isFiftyMoveDraw(){
+        return halfmoveClock >= 100;
+    }
+
+    // Neither side can mate: bare kings, a single minor piece, or only bishops all on the same square color
+    public boolean hasInsufficientMaterial(){
+        long heavy = pieces[PAWN] | pieces[ROOK] | pieces[QUEEN] | pieces[6 + PAWN] | pieces[6 + ROOK] | pieces[6 + QUEEN];
+        if(heavy != 0) return false;
+        long knights = pieces[KNIGHT] | pieces[6 + KNIGHT];
+        long bishops = pieces[BISHOP] | pieces[6 + BISHOP];
+        if(Long.bitCount(knights | bishops) <= 1) return true;
+        return knights == 0 && ((bishops & Bitboards.DARK_SQUARES) == 0 || (bishops & ~Bitboards.DARK_SQUARES) == 0);
+    }
+
+    // Looks outward from the square: a piece attacks it exactly when the same piece standing on it would
+    public boolean isSquareAttacked(int square, int byColor){
+        int base = byColor * 6;
+        if((Bitboards.KNIGHT_ATTACKS[square] & pieces[base + KNIGHT]) != 0) return true;
+        if((Bitboards.PAWN_ATTACKS[byColor ^ 1][square] & pieces[base + PAWN]) != 0) return true;
+        if((Bitboards.KING_ATTACKS[square] & pieces[base + KING]) != 0) return true;
+        long queens = pieces[base + QUEEN];
+        // Only trace the rays when a slider stands somewhere on them
+        long rooks = (pieces[base + ROOK] | queens) & Bitboards.ROOK_LINES[square];
+        if(rooks != 0 && (Bitboards.rookAttacks(square, occupied) & rooks) != 0) return true;
+        long bishops = (pieces[base + BISHOP] | queens) & Bitboards.BISHOP_LINES[square];
+        return bishops != 0 && (Bitboards.bishopAttacks(square, occupied) & bishops) != 0;
+    }
+
+    // Every piece of the given color attacking the square
+    public long attackersTo(int square, int byColor){
+        int base = byColor * 6;
+        return (Bitboards.KNIGHT_ATTACKS[square] & pieces[base + KNIGHT])
+                | (Bitboards.PAWN_ATTACKS[byColor ^ 1][square] & pieces[base + PAWN])
+                | (Bitboards.KING_ATTACKS[square] & pieces[base + KING])
+                | (Bitboards.rookAttacks(square, occupied) & (pieces[base + ROOK] | pieces[base + QUEEN]))
+                | (Bitboards.bishopAttacks(square, occupied) & (pieces[base + BISHOP] | pieces[base + QUEEN]));
+    }
+
+    public boolean isInCheck(int color){
+        int king = kingSquares[color];
+        return king != NO_SQUARE && isSquareAttacked(king, color ^ 1);
+    }
+
+    private void growHistory(){
+        int size = moveHistory.length * 2;
+        moveHistory = Arrays.copyOf(moveHistory, size);
+        capturedHistory = Arrays.copyOf(capturedHistory, size);
+        castlingHistory = Arrays.copyOf(castlingHistory, size);
+        enPassantHistory = Arrays.copyOf(enPassantHistory, size);
+        keyHistory = Arrays.copyOf(keyHistory, size);
+        halfmoveHistory = Arrays.copyOf(halfmoveHistory, size);
+    }
+}
@@ -0,0 +1,174 @@
+package chess.bitboard;
+
+import board.Position;
+
+public final class Bitboards {
+
+    // Squares are numbered a1 = 0, b1 = 1, ... h8 = 63 (rank * 8 + file)
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+    public static final long DARK_SQUARES = 0xAA55AA55AA55AA55L;
+
+    public static final long[] KNIGHT_ATTACKS = new long[64];
+    public static final long[] KING_ATTACKS = new long[64];
+    // Indexed by [color][square]: squares attacked by a pawn of that color standing on square
+    public static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Directions: north, east, north-east, north-west (increasing squares), then their opposites
+    public static final int NORTH = 0, EAST = 1, NORTH_EAST = 2, NORTH_WEST = 3;
+    public static final int SOUTH = 4, WEST = 5, SOUTH_WEST = 6, SOUTH_EAST = 7;
+    private static final int[] RANK_STEP = {1, 0, 1, 1, -1, 0, -1, -1};
+    private static final int[] FILE_STEP = {0, 1, 1, -1, 0, -1, -1, 1};
+
+    // Indexed by [direction][square]: every square on the ray, excluding the square itself
+    public static final long[][] RAYS = new long[8][64];
+    // Full rook and bishop lines through a square, for a cheap "can any slider reach here" test
+    public static final long[] ROOK_LINES = new long[64];
+    public static final long[] BISHOP_LINES = new long[64];
+    // Indexed by [a][b] for squares sharing a line: the squares strictly between them, and the whole line
+    public static final long[][] BETWEEN = new long[64][64];
+    public static final long[][] LINE = new long[64][64];
+
+    private static final String[] SQUARE_NAMES = new String[64];
+
+    static {
+        for(int sq = 0; sq < 64; sq++){
+            long b = 1L << sq;
+            KNIGHT_ATTACKS[sq] = knightAttacks(b);
+            KING_ATTACKS[sq] = kingAttacks(b);
+            PAWN_ATTACKS[BitBoard.WHITE][sq] = ((b << 7) & ~FILE_H) | ((b << 9) & ~FILE_A);
+            PAWN_ATTACKS[BitBoard.BLACK][sq] = ((b >>> 9) & ~FILE_H) | ((b >>> 7) & ~FILE_A);
+            for(int dir = 0; dir < 8; dir++) RAYS[dir][sq] = walk(sq, RANK_STEP[dir], FILE_STEP[dir]);
+            ROOK_LINES[sq] = RAYS[NORTH][sq] | RAYS[EAST][sq] | RAYS[SOUTH][sq] | RAYS[WEST][sq];
+            BISHOP_LINES[sq] = RAYS[NORTH_EAST][sq] | RAYS[NORTH_WEST][sq] | RAYS[SOUTH_WEST][sq] | RAYS[SOUTH_EAST][sq];
+            SQUARE_NAMES[sq] = new String(new char[]{(char)('a' + file(sq)), (char)('1' + rank(sq))});
+        }
+        for(int a = 0; a < 64; a++){
+            for(int dir = 0; dir < 8; dir++){
+                long line = RAYS[dir][a] | RAYS[dir ^ 4][a] | (1L << a);
+                long ray = RAYS[dir][a];
+                while(ray != 0){
+                    int b = Long.numberOfTrailingZeros(ray);
+                    ray &= ray - 1;
+                    BETWEEN[a][b] = RAYS[dir][a] & ~RAYS[dir][b] & ~(1L << b);
+                    LINE[a][b] = line;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    public static int square(int rank, int file){
+        return rank * 8 + file;
+    }
+
+    public static int rank(int square){
+        return square >>> 3;
+    }
+
+    public static int file(int square){
+        return square & 7;
+    }
+
+    // "a1" ... "h8"
+    public static String squareName(int square){
+        return SQUARE_NAMES[square];
+    }
+
+    // Square named by the two characters at offset, or NO_SQUARE
+    public static int parseSquare(CharSequence s, int offset){
+        if(offset < 0 || offset + 2 > s.length()) return BitBoard.NO_SQUARE;
+        int file = s.charAt(offset) - 'a';
+        int rank = s.charAt(offset + 1) - '1';
+        if(file < 0 || file > 7 || rank < 0 || rank > 7) return BitBoard.NO_SQUARE;
+        return square(rank, file);
+    }
+
+    // Board positions use row 0 for the 8th rank, so rows are mirrored
+    public static int square(Position position){
+        return square(7 - position.getRow(), position.getColumn());
+    }
+
+    public static Position toPosition(int square){
+        return new Position(7 - rank(square), file(square));
+    }
+
+    public static long bit(int square){
+        return 1L << square;
+    }
+
+    public static int firstSquare(long bitboard){
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    public static long rookAttacks(int square, long occupied){
+        return Magics.rookAttacks(square, occupied);
+    }
+
+    public static long bishopAttacks(int square, long occupied){
+        return Magics.bishopAttacks(square, occupied);
+    }
+
+    public static long queenAttacks(int square, long occupied){
+        return Magics.rookAttacks(square, occupied) | Magics.bishopAttacks(square, occupied);
+    }
+
+    // Attacks found by walking the rays, used to fill the magic tables
+    static long slidingRookAttacks(int square, long occupied){
+        return positiveRay(NORTH, square, occupied) | positiveRay(EAST, square, occupied)
+                | negativeRay(SOUTH, square, occupied) | negativeRay(WEST, square, occupied);
+    }
+
+    static long slidingBishopAttacks(int square, long occupied){
+        return positiveRay(NORTH_EAST, square, occupied) | positiveRay(NORTH_WEST, square, occupied)
+                | negativeRay(SOUTH_WEST, square, occupied) | negativeRay(SOUTH_EAST, square, occupied);
+    }
+
+    // Ray up to and including the first blocker: the nearest blocker is the lowest bit on increasing rays
+    private static long positiveRay(int dir, int square, long occupied){
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupied;
+        if(blockers == 0) return ray;
+        return ray ^ RAYS[dir][Long.numberOfTrailingZeros(blockers)];
+    }
+
+    private static long negativeRay(int dir, int square, long occupied){
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupied;
+        if(blockers == 0) return ray;
+        return ray ^ RAYS[dir][63 - Long.numberOfLeadingZeros(blockers)];
+    }
+
+    private static long walk(int square, int rankStep, int fileStep){
+        long ray = 0;
+        int rank = rank(square) + rankStep;
+        int file = file(square) + fileStep;
+        while(rank >= 0 && rank < 8 && file >= 0 && file < 8){
+            ray |= 1L << square(rank, file);
+            rank += rankStep;
+            file += fileStep;
+        }
+        return ray;
+    }
+
+    private static long knightAttacks(long b){
+        long notA = ~FILE_A;
+        long notAB = ~(FILE_A | (FILE_A << 1));
+        long notH = ~FILE_H;
+        long notGH = ~(FILE_H | (FILE_H >>> 1));
+        return ((b << 17) & notA) | ((b << 15) & notH)
+                | ((b << 10) & notAB) | ((b << 6) & notGH)
+                | ((b >>> 17) & notH) | ((b >>> 15) & notA)
+                | ((b >>> 10) & notGH) | ((b >>> 6) & notAB);
+    }
+
+    private static long kingAttacks(long b){
+        long sides = ((b << 1) & ~FILE_A) | ((b >>> 1) & ~FILE_H);
+        long row = b | sides;
+        return sides | (row << 8) | (row >>> 8);
+    }
+}
@@ -0,0 +1,151 @@
+package chess.bitboard;
+
+import chess.ChessException;
+
+public final class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_LETTERS = "PNBRQKpnbrqk";
+
+    private Fen() {
+    }
+
+    public static BitBoard parse(String fen){
+        String[] fields = fen.trim().split("\\s+");
+        if(fields.length < 4 || fields.length > 6)
+            throw new ChessException("Invalid FEN: expected 4 to 6 fields but found " + fields.length);
+
+        BitBoard position = new BitBoard();
+        parsePlacement(position, fields[0]);
+
+        if(fields[1].equals("w")) position.setSideToMove(BitBoard.WHITE);
+        else if(fields[1].equals("b")) position.setSideToMove(BitBoard.BLACK);
+        else throw new ChessException("Invalid FEN: side to move must be w or b");
+
+        position.setCastlingRights(parseCastling(position, fields[2]));
+        position.setEnPassantSquare(parseEnPassant(position, fields[3]));
+
+        try {
+            if(fields.length > 4) position.setHalfmoveClock(Integer.parseInt(fields[4]));
+            if(fields.length > 5) position.setFullmoveNumber(Math.max(1, Integer.parseInt(fields[5])));
+        }
+        catch(NumberFormatException e){
+            throw new ChessException("Invalid FEN: move counters must be numbers");
+        }
+        if(position.getHalfmoveClock() < 0) throw new ChessException("Invalid FEN: negative halfmove clock");
+
+        if(position.isInCheck(position.getSideToMove() ^ 1))
+            throw new ChessException("Invalid FEN: the side not to move is in check");
+        return position;
+    }
+
+    public static String toFen(BitBoard position){
+        StringBuilder sb = new StringBuilder(90);
+        for(int rank = 7; rank >= 0; rank--){
+            int empty = 0;
+            for(int file = 0; file < 8; file++){
+                int piece = position.pieceAt(Bitboards.square(rank, file));
+                if(piece == BitBoard.NO_PIECE){
+                    empty++;
+                    continue;
+                }
+                if(empty > 0) sb.append(empty);
+                empty = 0;
+                sb.append(PIECE_LETTERS.charAt(piece));
+            }
+            if(empty > 0) sb.append(empty);
+            if(rank > 0) sb.append('/');
+        }
+
+        sb.append(position.getSideToMove() == BitBoard.WHITE ? " w " : " b ");
+
+        int rights = position.getCastlingRights();
+        if(rights == 0) sb.append('-');
+        if((rights & BitBoard.WHITE_KING_SIDE) != 0) sb.append('K');
+        if((rights & BitBoard.WHITE_QUEEN_SIDE) != 0) sb.append('Q');
+        if((rights & BitBoard.BLACK_KING_SIDE) != 0) sb.append('k');
+        if((rights & BitBoard.BLACK_QUEEN_SIDE) != 0) sb.append('q');
+
+        int ep = position.getEnPassantSquare();
+        sb.append(' ');
+        if(ep == BitBoard.NO_SQUARE) sb.append('-');
+        else sb.append(Bitboards.squareName(ep));
+
+        sb.append(' ').append(position.getHalfmoveClock());
+        sb.append(' ').append(position.getFullmoveNumber());
+        return sb.toString();
+    }
+
+    private static void parsePlacement(BitBoard position, String placement){
+        String[] ranks = placement.split("/");
+        if(ranks.length != 8) throw new ChessException("Invalid FEN: expected 8 ranks");
+        for(int i = 0; i < 8; i++){
+            int rank = 7 - i;
+            int file = 0;
+            for(char c : ranks[i].toCharArray()){
+                if(c >= '1' && c <= '8'){
+                    file += c - '0';
+                    continue;
+                }
+                int piece = PIECE_LETTERS.indexOf(c);
+                if(piece < 0) throw new ChessException("Invalid FEN: unknown piece '" + c + "'");
+                if(file > 7) throw new ChessException("Invalid FEN: rank " + (rank + 1) + " is too long");
+                position.addPiece(BitBoard.colorOf(piece), BitBoard.typeOf(piece), Bitboards.square(rank, file));
+                file++;
+            }
+            if(file != 8) throw new ChessException("Invalid FEN: rank " + (rank + 1) + " doesn't have 8 squares");
+        }
+        for(int color = BitBoard.WHITE; color <= BitBoard.BLACK; color++){
+            if(Long.bitCount(position.pieces(color, BitBoard.KING)) != 1)
+                throw new ChessException("Invalid FEN: each side needs exactly one king");
+        }
+        if(((position.pieces(BitBoard.WHITE, BitBoard.PAWN) | position.pieces(BitBoard.BLACK, BitBoard.PAWN))
+                & (Bitboards.RANK_1 | Bitboards.RANK_8)) != 0)
+            throw new ChessException("Invalid FEN: pawns can't stand on the first or last rank");
+    }
+
+    private static int parseCastling(BitBoard position, String field){
+        if(field.equals("-")) return 0;
+        int rights = 0;
+        for(char c : field.toCharArray()){
+            int right = "KQkq".indexOf(c);
+            if(right < 0) throw new ChessException("Invalid FEN: unknown castling right '" + c + "'");
+            rights |= 1 << right;
+        }
+        return validCastling(position, rights);
+    }
+
+    // Rights whose king or rook isn't on its home square are dropped, as they could never be used.
+    // Shared with PositionCodec, whose input is no more trustworthy than a FEN string
+    static int validCastling(BitBoard position, int rights){
+        int whiteRook = BitBoard.piece(BitBoard.WHITE, BitBoard.ROOK);
+        int blackRook = BitBoard.piece(BitBoard.BLACK, BitBoard.ROOK);
+        if(position.pieceAt(4) != BitBoard.piece(BitBoard.WHITE, BitBoard.KING))
+            rights &= ~(BitBoard.WHITE_KING_SIDE | BitBoard.WHITE_QUEEN_SIDE);
+        if(position.pieceAt(60) != BitBoard.piece(BitBoard.BLACK, BitBoard.KING))
+            rights &= ~(BitBoard.BLACK_KING_SIDE | BitBoard.BLACK_QUEEN_SIDE);
+        if(position.pieceAt(7) != whiteRook) rights &= ~BitBoard.WHITE_KING_SIDE;
+        if(position.pieceAt(0) != whiteRook) rights &= ~BitBoard.WHITE_QUEEN_SIDE;
+        if(position.pieceAt(63) != blackRook) rights &= ~BitBoard.BLACK_KING_SIDE;
+        if(position.pieceAt(56) != blackRook) rights &= ~BitBoard.BLACK_QUEEN_SIDE;
+        return rights;
+    }
+
+    private static int parseEnPassant(BitBoard position, String field){
+        if(field.equals("-")) return BitBoard.NO_SQUARE;
+        if(field.length() != 2 || field.charAt(0) < 'a' || field.charAt(0) > 'h')
+            throw new ChessException("Invalid FEN: bad en passant square " + field);
+        int rank = field.charAt(1) - '1';
+        int expected = position.getSideToMove() == BitBoard.WHITE ? 5 : 2;
+        if(rank != expected) throw new ChessException("Invalid FEN: bad en passant square " + field);
+        return validEnPassant(position, Bitboards.square(rank, field.charAt(0) - 'a'));
+    }
+
+    // Tolerates a square left behind by a double push that isn't backed by the pawn itself by dropping it
+    static int validEnPassant(BitBoard position, int square){
+        int pawn = BitBoard.piece(position.getSideToMove() ^ 1, BitBoard.PAWN);
+        if(position.pieceAt(square ^ 8) != pawn || !position.isEmpty(square)) return BitBoard.NO_SQUARE;
+        return square;
+    }
+}
@@ -0,0 +1,112 @@
+package chess.bitboard;
+
+// Magic bitboard lookup for sliding attacks. For every square, the occupancy of the squares that can block
+// the slider (its lines without the board edge) is multiplied by a magic number, and the top bits of the
+// product index a table of ready-made attack sets. The magics were found by trying sparse random numbers
+// until one sent every blocker subset to a slot without a conflicting attack set; searching for them on
+// every start costs most of a second, so they are fixed here and only the tables are filled at startup
+final class Magics {
+
+    private static final long[] ROOK_MAGICS = {
+            0x0A00120081004022L, 0x0440004010002000L, 0x0200081040820020L, 0x4080040800100080L,
+            0xA080020400880080L, 0x2300080201000400L, 0x2900009402001100L, 0x4100060844208900L,
+            0x030D800240068028L, 0x0044400420005000L, 0x0040808020001000L, 0x0120800800801002L,
+            0x1001000408010010L, 0x8110802200840080L, 0x4241000401000200L, 0x0020800100005080L,
+            0x00AB228005804000L, 0x5040042008100021L, 0x0000888020021000L, 0x0600090010002100L,
+            0x0095808008010400L, 0x0085010008040002L, 0x8080040001021008L, 0x1480020001004084L,
+            0x111A81208000C000L, 0x8820002540100040L, 0xC210100080200084L, 0x060100210010000CL,
+            0x2001006500080010L, 0x0C120006000C1810L, 0x2800320C00100809L, 0x8401004200259401L,
+            0x4080002000404000L, 0x0248400081003100L, 0x0002801004802000L, 0x6000100084800800L,
+            0x0000040080800800L, 0x4080800400800201L, 0x1001881084002142L, 0x0112005302000C84L,
+            0x0880024020014000L, 0x08C0008041010020L, 0x0320001008004040L, 0x0004084012020020L,
+            0x2000050008010010L, 0x10020010052E0018L, 0x220200110842008CL, 0x004100804C020011L,
+            0x0080010080482900L, 0x0100400420100840L, 0x001010200C410100L, 0x4800090020100100L,
+            0x0401001204080100L, 0x1540040080020080L, 0x000A000448014200L, 0x10000C0041008A00L,
+            0x0000208000104101L, 0x8000104000208101L, 0x012000110022C129L, 0x0024100045210009L,
+            0x0102002108841002L, 0x0502000410014882L, 0x0022900158020094L, 0x8000004100882402L
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x4008080808084810L, 0x2090841084084052L, 0x1004070C0F0C0004L, 0x001C140080042080L,
+            0x0019104000900801L, 0x81009010881C8002L, 0xA004020242A14082L, 0x6000820800820912L,
+            0x0002600911410404L, 0x8040318202040020L, 0x0100240440820E02L, 0x00084C0410940408L,
+            0x8520020210000104L, 0x0090220110090108L, 0x0480004402084040L, 0x0001009401084200L,
+            0x8008081042482808L, 0x206400101080A105L, 0x4702030400220200L, 0x100400484040090AL,
+            0x0007000820080500L, 0x0002800100A00100L, 0x0160800420A80844L, 0x0890304041041000L,
+            0x1102080842282810L, 0x84B034004208261CL, 0x280A300002018201L, 0x8010040000401020L,
+            0x0041040012002102L, 0x0010030000804144L, 0x4101084801041000L, 0x262210C002242200L,
+            0x0004504202240400L, 0x1344500800042104L, 0x0108280800610A00L, 0x0202004042640100L,
+            0x0820420020020080L, 0x0938088100880900L, 0x0016440400014208L, 0x2002208122020610L,
+            0x0021084804014080L, 0x0201010882C02000L, 0x0206030041016804L, 0x0A08806013024801L,
+            0x0100080100400401L, 0x8220208102002040L, 0x40280A0812440220L, 0x6810041080200880L,
+            0x8104441048080004L, 0x0008220110880080L, 0x0004208422980050L, 0x2841C20020880000L,
+            0x2804010410442100L, 0x0840200202820300L, 0x001030012820A082L, 0x2020040092004208L,
+            0x4022808400A24000L, 0x0088848A01100302L, 0x830000C200422200L, 0x804002001A841104L,
+            0x8004001010460620L, 0x8032030860080222L, 0x2100100282040428L, 0x0240010101010100L
+    };
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    // Per-square slices of one shared table each, starting at the offset
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE;
+    private static final long[] BISHOP_TABLE;
+
+    private static final long EDGE_RANKS = Bitboards.RANK_1 | Bitboards.RANK_8;
+    private static final long EDGE_FILES = Bitboards.FILE_A | Bitboards.FILE_H;
+
+    static {
+        int rookSize = 0;
+        int bishopSize = 0;
+        for(int sq = 0; sq < 64; sq++){
+            long rank = Bitboards.RANK_1 << 8 * Bitboards.rank(sq);
+            long file = Bitboards.FILE_A << Bitboards.file(sq);
+            // A piece on the edge has nothing behind it to block, except along the edge the rook itself stands on
+            long rookEdges = (EDGE_RANKS & ~rank) | (EDGE_FILES & ~file);
+            ROOK_MASKS[sq] = Bitboards.ROOK_LINES[sq] & ~rookEdges;
+            BISHOP_MASKS[sq] = Bitboards.BISHOP_LINES[sq] & ~(EDGE_RANKS | EDGE_FILES);
+            ROOK_SHIFTS[sq] = 64 - Long.bitCount(ROOK_MASKS[sq]);
+            BISHOP_SHIFTS[sq] = 64 - Long.bitCount(BISHOP_MASKS[sq]);
+            ROOK_OFFSETS[sq] = rookSize;
+            BISHOP_OFFSETS[sq] = bishopSize;
+            rookSize += 1 << Long.bitCount(ROOK_MASKS[sq]);
+            bishopSize += 1 << Long.bitCount(BISHOP_MASKS[sq]);
+        }
+        ROOK_TABLE = new long[rookSize];
+        BISHOP_TABLE = new long[bishopSize];
+        for(int sq = 0; sq < 64; sq++){
+            fill(sq, ROOK_MASKS[sq], ROOK_MAGICS[sq], ROOK_SHIFTS[sq], ROOK_TABLE, ROOK_OFFSETS[sq], true);
+            fill(sq, BISHOP_MASKS[sq], BISHOP_MAGICS[sq], BISHOP_SHIFTS[sq], BISHOP_TABLE, BISHOP_OFFSETS[sq], false);
+        }
+    }
+
+    private Magics() {
+    }
+
+    static long rookAttacks(int square, long occupied){
+        return ROOK_TABLE[ROOK_OFFSETS[square]
+                + (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    static long bishopAttacks(int square, long occupied){
+        return BISHOP_TABLE[BISHOP_OFFSETS[square]
+                + (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    // Walks every subset of the mask and stores its attacks in the square's slice
+    private static void fill(int square, long mask, long magic, int shift, long[] table, int offset, boolean rook){
+        boolean[] used = new boolean[1 << (64 - shift)];
+        long subset = 0;
+        do {
+            long attacks = rook ? Bitboards.slidingRookAttacks(square, subset) : Bitboards.slidingBishopAttacks(square, subset);
+            int index = (int) ((subset * magic) >>> shift);
+            if(used[index] && table[offset + index] != attacks) throw new IllegalStateException("Bad magic for square " + square);
+            used[index] = true;
+            table[offset + index] = attacks;
+            // Carry-rippler step to the next subset of the mask
+            subset = (subset - mask) & mask;
+        } while(subset != 0);
+    }
+}
@@ -0,0 +1,85 @@
+package chess.bitboard;
+
+public final class Move {
+
+    // A move is packed in the low 16 bits of an int: from (6 bits), to (6 bits), flags (4 bits)
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+    public static final int PROMOTION_CAPTURE = 12;
+
+    private static final String PROMOTION_LETTERS = "nbrq";
+    // Indexed by from | to << 6; promotion names are only filled in for pawn steps onto the last rank
+    private static final String[] NAMES = new String[64 * 64];
+    private static final String[][] PROMOTION_NAMES = new String[4][64 * 64];
+
+    static {
+        for(int from = 0; from < 64; from++){
+            for(int to = 0; to < 64; to++){
+                String name = Bitboards.squareName(from) + Bitboards.squareName(to);
+                NAMES[from | to << 6] = name;
+                boolean lastRank = (Bitboards.rank(from) == 6 && Bitboards.rank(to) == 7)
+                        || (Bitboards.rank(from) == 1 && Bitboards.rank(to) == 0);
+                if(lastRank && Math.abs(Bitboards.file(from) - Bitboards.file(to)) <= 1){
+                    for(int i = 0; i < 4; i++) PROMOTION_NAMES[i][from | to << 6] = name + PROMOTION_LETTERS.charAt(i);
+                }
+            }
+        }
+        NAMES[NONE] = "0000";
+    }
+
+    private Move() {
+    }
+
+    public static int of(int from, int to, int flags){
+        return from | (to << 6) | (flags << 12);
+    }
+
+    // Promotion flags carry the promoted type in their two low bits: knight, bishop, rook, queen
+    public static int promotion(int from, int to, int type, boolean capture){
+        return of(from, to, (capture ? PROMOTION_CAPTURE : PROMOTION) | (type - BitBoard.KNIGHT));
+    }
+
+    public static int from(int move){
+        return move & 0x3F;
+    }
+
+    public static int to(int move){
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int flags(int move){
+        return (move >>> 12) & 0xF;
+    }
+
+    public static boolean isCapture(int move){
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move){
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastling(int move){
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    public static int promotionType(int move){
+        return BitBoard.KNIGHT + (flags(move) & 3);
+    }
+
+    // Long algebraic (UCI) name, looked up rather than built: "e2e4", "e7e8q", or "0000" for NONE
+    public static String toString(int move){
+        int squares = move & 0xFFF;
+        if(!isPromotion(move)) return NAMES[squares];
+        String name = PROMOTION_NAMES[flags(move) & 3][squares];
+        return name != null ? name : NAMES[squares] + PROMOTION_LETTERS.charAt(flags(move) & 3);
+    }
+}
@@ -0,0 +1,278 @@
+package chess.bitboard;
+
+public final class MoveGenerator {
+
+    // No legal chess position has more than 218 moves
+    public static final int MAX_MOVES = 256;
+
+    private MoveGenerator() {
+    }
+
+    // Writes the pseudo-legal moves of the side to move into moves[start..] and returns the new end index
+    public static int generate(BitBoard position, int[] moves, int start){
+        int color = position.getSideToMove();
+        long own = position.occupancy(color);
+        long enemies = position.occupancy(color ^ 1);
+        long occupied = position.occupied();
+        int n = start;
+
+        n = generatePawnMoves(position, color, enemies, occupied, moves, n);
+
+        long knights = position.pieces(color, BitBoard.KNIGHT);
+        while(knights != 0){
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            n = addMoves(from, Bitboards.KNIGHT_ATTACKS[from] & ~own, enemies, moves, n);
+        }
+
+        long bishops = position.pieces(color, BitBoard.BISHOP);
+        while(bishops != 0){
+            int from = Long.numberOfTrailingZeros(bishops);
+            bishops &= bishops - 1;
+            n = addMoves(from, Bitboards.bishopAttacks(from, occupied) & ~own, enemies, moves, n);
+        }
+
+        long rooks = position.pieces(color, BitBoard.ROOK);
+        while(rooks != 0){
+            int from = Long.numberOfTrailingZeros(rooks);
+            rooks &= rooks - 1;
+            n = addMoves(from, Bitboards.rookAttacks(from, occupied) & ~own, enemies, moves, n);
+        }
+
+        long queens = position.pieces(color, BitBoard.QUEEN);
+        while(queens != 0){
+            int from = Long.numberOfTrailingZeros(queens);
+            queens &= queens - 1;
+            n = addMoves(from, Bitboards.queenAttacks(from, occupied) & ~own, enemies, moves, n);
+        }
+
+        long king = position.pieces(color, BitBoard.KING);
+        if(king != 0){
+            int from = Long.numberOfTrailingZeros(king);
+            n = addMoves(from, Bitboards.KING_ATTACKS[from] & ~own, enemies, moves, n);
+            n = generateCastling(position, color, from, occupied, moves, n);
+        }
+        return n;
+    }
+
+    // Captures, en passant and promotions only, as used by quiescence search
+    public static int generateCaptures(BitBoard position, int[] moves, int start){
+        int color = position.getSideToMove();
+        long enemies = position.occupancy(color ^ 1);
+        long occupied = position.occupied();
+        int n = start;
+
+        long pawns = position.pieces(color, BitBoard.PAWN);
+        long promotionRank = (color == BitBoard.WHITE) ? Bitboards.RANK_8 : Bitboards.RANK_1;
+        int forward = (color == BitBoard.WHITE) ? 8 : -8;
+        long promotions = ((color == BitBoard.WHITE) ? pawns << 8 : pawns >>> 8) & ~occupied & promotionRank;
+        while(promotions != 0){
+            int to = Long.numberOfTrailingZeros(promotions);
+            promotions &= promotions - 1;
+            n = addPromotions(to - forward, to, false, moves, n);
+        }
+        int ep = position.getEnPassantSquare();
+        while(pawns != 0){
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long attacks = Bitboards.PAWN_ATTACKS[color][from];
+            long captures = attacks & enemies;
+            while(captures != 0){
+                int to = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                if(((1L << to) & promotionRank) != 0) n = addPromotions(from, to, true, moves, n);
+                else moves[n++] = Move.of(from, to, Move.CAPTURE);
+            }
+            if(ep != BitBoard.NO_SQUARE && (attacks & (1L << ep)) != 0)
+                moves[n++] = Move.of(from, ep, Move.EN_PASSANT);
+        }
+
+        for(int type = BitBoard.KNIGHT; type <= BitBoard.KING; type++){
+            long pieces = position.pieces(color, type);
+            while(pieces != 0){
+                int from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                n = addMoves(from, attacks(type, from, occupied) & enemies, enemies, moves, n);
+            }
+        }
+        return n;
+    }
+
+    public static long attacks(int type, int square, long occupied){
+        switch(type){
+            case BitBoard.KNIGHT: return Bitboards.KNIGHT_ATTACKS[square];
+            case BitBoard.BISHOP: return Bitboards.bishopAttacks(square, occupied);
+            case BitBoard.ROOK: return Bitboards.rookAttacks(square, occupied);
+            case BitBoard.QUEEN: return Bitboards.queenAttacks(square, occupied);
+            case BitBoard.KING: return Bitboards.KING_ATTACKS[square];
+            default: throw new IllegalArgumentException("No attack table for piece type " + type);
+        }
+    }
+
+    // Legal moves only. Checkers and pins are worked out once, then each pseudo-legal move is
+    // accepted or dropped with mask tests instead of being played and taken back
+    public static int generateLegal(BitBoard position, int[] moves, int start){
+        int end = generate(position, moves, start);
+        int color = position.getSideToMove();
+        int enemy = color ^ 1;
+        int king = position.kingSquare(color);
+        if(king == BitBoard.NO_SQUARE) return end;
+
+        long own = position.occupancy(color);
+        long occupied = position.occupied();
+        long enemyRooks = position.pieces(enemy, BitBoard.ROOK) | position.pieces(enemy, BitBoard.QUEEN);
+        long enemyBishops = position.pieces(enemy, BitBoard.BISHOP) | position.pieces(enemy, BitBoard.QUEEN);
+
+        // Squares a non-king move must land on: anywhere, the checker or the checking line, or none in double check
+        long checkers = position.attackersTo(king, enemy);
+        long checkMask;
+        if(checkers == 0) checkMask = -1L;
+        else if((checkers & (checkers - 1)) != 0) checkMask = 0;
+        else checkMask = checkers | Bitboards.BETWEEN[king][Long.numberOfTrailingZeros(checkers)];
+
+        long pinned = 0;
+        long snipers = (Bitboards.ROOK_LINES[king] & enemyRooks) | (Bitboards.BISHOP_LINES[king] & enemyBishops);
+        while(snipers != 0){
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long between = Bitboards.BETWEEN[king][sniper] & occupied;
+            if(between != 0 && (between & (between - 1)) == 0 && (between & own) != 0) pinned |= between;
+        }
+
+        long kingless = occupied & ~(1L << king);
+        int n = start;
+        for(int i = start; i < end; i++){
+            int move = moves[i];
+            int from = Move.from(move);
+            int to = Move.to(move);
+            boolean legal;
+            if(from == king){
+                // Without the king on the board, so it can't hide behind itself along a checking line
+                legal = !isAttacked(position, to, enemy, kingless, enemyRooks, enemyBishops);
+            }
+            else if(Move.flags(move) == Move.EN_PASSANT){
+                legal = isLegalEnPassant(position, king, from, to, checkers, checkMask, enemyRooks, enemyBishops);
+            }
+            else {
+                legal = (checkMask & (1L << to)) != 0
+                        && ((pinned & (1L << from)) == 0 || (Bitboards.LINE[king][from] & (1L << to)) != 0);
+            }
+            if(legal) moves[n++] = move;
+        }
+        return n;
+    }
+
+    // Attack test against a custom occupancy; the target square itself may hold a capturable piece
+    private static boolean isAttacked(BitBoard position, int square, int enemy, long occupied,
+                                      long enemyRooks, long enemyBishops){
+        if((Bitboards.KNIGHT_ATTACKS[square] & position.pieces(enemy, BitBoard.KNIGHT)) != 0) return true;
+        if((Bitboards.PAWN_ATTACKS[enemy ^ 1][square] & position.pieces(enemy, BitBoard.PAWN)) != 0) return true;
+        if((Bitboards.KING_ATTACKS[square] & position.pieces(enemy, BitBoard.KING)) != 0) return true;
+        long notCaptured = ~(1L << square);
+        if((Bitboards.rookAttacks(square, occupied) & enemyRooks & notCaptured) != 0) return true;
+        return (Bitboards.bishopAttacks(square, occupied) & enemyBishops & notCaptured) != 0;
+    }
+
+    // Both pawns leave their squares at once, which can uncover a slider along the king's rank
+    private static boolean isLegalEnPassant(BitBoard position, int king, int from, int to, long checkers,
+                                            long checkMask, long enemyRooks, long enemyBishops){
+        int captured = to ^ 8;
+        if(checkers != 0 && (checkMask & ((1L << to) | (1L << captured))) == 0) return false;
+        if((checkers & (checkers - 1)) != 0) return false;
+        long occupied = (position.occupied() ^ (1L << from) ^ (1L << captured)) | (1L << to);
+        return (Bitboards.rookAttacks(king, occupied) & enemyRooks) == 0
+                && (Bitboards.bishopAttacks(king, occupied) & enemyBishops) == 0;
+    }
+
+    private static int generatePawnMoves(BitBoard position, int color, long enemies, long occupied, int[] moves, int n){
+        long pawns = position.pieces(color, BitBoard.PAWN);
+        long empty = ~occupied;
+        long singles, doubles;
+        int forward;
+        long promotionRank;
+        if(color == BitBoard.WHITE){
+            singles = (pawns << 8) & empty;
+            doubles = ((singles & (Bitboards.RANK_1 << 16)) << 8) & empty;
+            forward = 8;
+            promotionRank = Bitboards.RANK_8;
+        }
+        else {
+            singles = (pawns >>> 8) & empty;
+            doubles = ((singles & (Bitboards.RANK_8 >>> 16)) >>> 8) & empty;
+            forward = -8;
+            promotionRank = Bitboards.RANK_1;
+        }
+
+        long pushes = singles & ~promotionRank;
+        while(pushes != 0){
+            int to = Long.numberOfTrailingZeros(pushes);
+            pushes &= pushes - 1;
+            moves[n++] = Move.of(to - forward, to, Move.QUIET);
+        }
+        long promotions = singles & promotionRank;
+        while(promotions != 0){
+            int to = Long.numberOfTrailingZeros(promotions);
+            promotions &= promotions - 1;
+            n = addPromotions(to - forward, to, false, moves, n);
+        }
+        while(doubles != 0){
+            int to = Long.numberOfTrailingZeros(doubles);
+            doubles &= doubles - 1;
+            moves[n++] = Move.of(to - 2 * forward, to, Move.DOUBLE_PUSH);
+        }
+
+        long capturers = pawns;
+        while(capturers != 0){
+            int from = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+            long attacks = Bitboards.PAWN_ATTACKS[color][from];
+            long captures = attacks & enemies;
+            while(captures != 0){
+                int to = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                if(((1L << to) & promotionRank) != 0) n = addPromotions(from, to, true, moves, n);
+                else moves[n++] = Move.of(from, to, Move.CAPTURE);
+            }
+            int ep = position.getEnPassantSquare();
+            if(ep != BitBoard.NO_SQUARE && (attacks & (1L << ep)) != 0)
+                moves[n++] = Move.of(from, ep, Move.EN_PASSANT);
+        }
+        return n;
+    }
+
+    private static int addPromotions(int from, int to, boolean capture, int[] moves, int n){
+        moves[n++] = Move.promotion(from, to, BitBoard.QUEEN, capture);
+        moves[n++] = Move.promotion(from, to, BitBoard.ROOK, capture);
+        moves[n++] = Move.promotion(from, to, BitBoard.BISHOP, capture);
+        moves[n++] = Move.promotion(from, to, BitBoard.KNIGHT, capture);
+        return n;
+    }
+
+    private static int addMoves(int from, long targets, long enemies, int[] moves, int n){
+        while(targets != 0){
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves[n++] = Move.of(from, to, ((enemies >>> to) & 1) != 0 ? Move.CAPTURE : Move.QUIET);
+        }
+        return n;
+    }
+
+    // The king may not castle out of, through or (checked later by legality) into check
+    private static int generateCastling(BitBoard position, int color, int king, long occupied, int[] moves, int n){
+        int rights = position.getCastlingRights();
+        int kingSide = (color == BitBoard.WHITE) ? BitBoard.WHITE_KING_SIDE : BitBoard.BLACK_KING_SIDE;
+        int queenSide = (color == BitBoard.WHITE) ? BitBoard.WHITE_QUEEN_SIDE : BitBoard.BLACK_QUEEN_SIDE;
+        if((rights & (kingSide | queenSide)) == 0) return n;
+        int enemy = color ^ 1;
+        if(position.isSquareAttacked(king, enemy)) return n;
+
+        if((rights & kingSide) != 0 && (occupied & (3L << (king + 1))) == 0
+                && !position.isSquareAttacked(king + 1, enemy))
+            moves[n++] = Move.of(king, king + 2, Move.KING_CASTLE);
+
+        if((rights & queenSide) != 0 && (occupied & (7L << (king - 3))) == 0
+                && !position.isSquareAttacked(king - 1, enemy))
+            moves[n++] = Move.of(king, king - 2, Move.QUEEN_CASTLE);
+        return n;
+    }
+}
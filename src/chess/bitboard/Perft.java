@@ -0,0 +1,56 @@
+package chess.bitboard;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class Perft {
+
+    private final BitBoard position;
+    private int[][] moves = new int[0][];
+
+    // Works on a private copy so the caller's position is never touched
+    public Perft(BitBoard position) {
+        this.position = new BitBoard(position);
+    }
+
+    public long count(int depth){
+        if(depth < 0) throw new IllegalArgumentException("Perft depth can't be negative");
+        ensureBuffers(depth);
+        return perft(depth);
+    }
+
+    // Node count below each legal root move, in generation order
+    public Map<String, Long> divide(int depth){
+        if(depth < 1) throw new IllegalArgumentException("Perft divide needs a depth of at least 1");
+        ensureBuffers(depth);
+        Map<String, Long> result = new LinkedHashMap<>();
+        int[] buffer = moves[depth];
+        int n = MoveGenerator.generateLegal(position, buffer, 0);
+        for(int i = 0; i < n; i++){
+            position.makeMove(buffer[i]);
+            result.put(Move.toString(buffer[i]), perft(depth - 1));
+            position.undoMove();
+        }
+        return result;
+    }
+
+    private long perft(int depth){
+        if(depth == 0) return 1;
+        int[] buffer = moves[depth];
+        int n = MoveGenerator.generateLegal(position, buffer, 0);
+        if(depth == 1) return n;
+
+        long nodes = 0;
+        for(int i = 0; i < n; i++){
+            position.makeMove(buffer[i]);
+            nodes += perft(depth - 1);
+            position.undoMove();
+        }
+        return nodes;
+    }
+
+    private void ensureBuffers(int depth){
+        if(moves.length > depth) return;
+        moves = new int[depth + 1][MoveGenerator.MAX_MOVES];
+    }
+}
@@ -0,0 +1,85 @@
+package chess.bitboard;
+
+import chess.ChessException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+// Binary form of a position, 15 to 30 bytes:
+//   occupied squares   8 bytes
+//   pieces             4 bits each, in square order
+//   side | castling    1 byte, side in bit 0 and the castling rights above it
+//   en passant file    1 byte, file + 1 or 0 for none (the rank follows from the side to move)
+//   halfmove clock     2 bytes
+//   fullmove number    2 bytes
+public final class PositionCodec {
+
+    public static final int MAX_SIZE = 8 + 16 + 1 + 1 + 2 + 2;
+
+    private PositionCodec() {
+    }
+
+    public static int size(BitBoard position){
+        return 8 + (Long.bitCount(position.occupied()) + 1) / 2 + 1 + 1 + 2 + 2;
+    }
+
+    public static void write(BitBoard position, ByteBuffer buffer){
+        long occupied = position.occupied();
+        buffer.putLong(occupied);
+        int packed = 0;
+        boolean half = false;
+        for(long b = occupied; b != 0; b &= b - 1){
+            int piece = position.pieceAt(Long.numberOfTrailingZeros(b));
+            if(half) buffer.put((byte) (packed | piece << 4));
+            else packed = piece;
+            half = !half;
+        }
+        if(half) buffer.put((byte) packed);
+
+        buffer.put((byte) (position.getSideToMove() | position.getCastlingRights() << 1));
+        int ep = position.getEnPassantSquare();
+        buffer.put((byte) (ep == BitBoard.NO_SQUARE ? 0 : Bitboards.file(ep) + 1));
+        buffer.putShort((short) Math.min(position.getHalfmoveClock(), 0xFFFF));
+        buffer.putShort((short) Math.min(position.getFullmoveNumber(), 0xFFFF));
+    }
+
+    public static BitBoard read(ByteBuffer buffer){
+        try{
+            BitBoard position = new BitBoard();
+            long occupied = buffer.getLong();
+            int packed = 0;
+            boolean half = false;
+            for(long b = occupied; b != 0; b &= b - 1){
+                int piece;
+                if(half) piece = packed >>> 4;
+                else {
+                    packed = buffer.get() & 0xFF;
+                    piece = packed & 0xF;
+                }
+                half = !half;
+                if(piece > 11) throw new ChessException("Invalid position data: bad piece code " + piece);
+                position.addPiece(BitBoard.colorOf(piece), BitBoard.typeOf(piece), Long.numberOfTrailingZeros(b));
+            }
+            if(Long.bitCount(position.pieces(BitBoard.WHITE, BitBoard.KING)) != 1
+                    || Long.bitCount(position.pieces(BitBoard.BLACK, BitBoard.KING)) != 1)
+                throw new ChessException("Invalid position data: each side needs exactly one king");
+
+            int state = buffer.get() & 0xFF;
+            int side = state & 1;
+            position.setSideToMove(side);
+            // Castling and en passant are checked against the board as for FEN, so a damaged image can't
+            // castle with a missing rook or take a pawn that isn't there
+            position.setCastlingRights(Fen.validCastling(position, (state >>> 1) & BitBoard.ALL_CASTLING));
+            int epFile = buffer.get() & 0xFF;
+            if(epFile > 8) throw new ChessException("Invalid position data: bad en passant file");
+            if(epFile != 0)
+                position.setEnPassantSquare(Fen.validEnPassant(position, Bitboards.square(side == BitBoard.WHITE ? 5 : 2, epFile - 1)));
+            position.setHalfmoveClock(buffer.getShort() & 0xFFFF);
+            position.setFullmoveNumber(Math.max(1, buffer.getShort() & 0xFFFF));
+            return position;
+        }
+        catch(BufferUnderflowException e){
+            throw new ChessException("Invalid position data: truncated");
+        }
+    }
+}
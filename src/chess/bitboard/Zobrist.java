@@ -0,0 +1,37 @@
+package chess.bitboard;
+
+public final class Zobrist {
+
+    // Indexed by [piece][square], piece being color * 6 + type
+    public static final long[][] PIECES = new long[12][64];
+    public static final long[] CASTLING = new long[16];
+    public static final long[] EN_PASSANT_FILE = new long[8];
+    public static final long SIDE;
+
+    // Fixed seed so keys are stable across runs and can be stored
+    private static long seed = 0x2545F4914F6CDD1DL;
+
+    static {
+        for(int piece = 0; piece < 12; piece++){
+            for(int sq = 0; sq < 64; sq++) PIECES[piece][sq] = next();
+        }
+        for(int i = 0; i < CASTLING.length; i++) CASTLING[i] = next();
+        for(int i = 0; i < EN_PASSANT_FILE.length; i++) EN_PASSANT_FILE[i] = next();
+        SIDE = next();
+    }
+
+    private Zobrist() {
+    }
+
+    // SplitMix64
+    private static long next(){
+        long z = (seed += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static long enPassant(int square){
+        return square == BitBoard.NO_SQUARE ? 0 : EN_PASSANT_FILE[square & 7];
+    }
+}
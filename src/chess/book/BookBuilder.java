@@ -0,0 +1,104 @@
+package chess.book;
+
+import chess.ChessException;
+import chess.bitboard.BitBoard;
+import chess.bitboard.Fen;
+import chess.bitboard.MoveGenerator;
+import chess.notation.San;
+import chess.pgn.PgnGame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Collects the opening moves of a game corpus into an OpeningBook file. A move's weight is its score for
+// the side that played it, 2 per win and 1 per draw, so moves that only ever lost are left out
+public class BookBuilder {
+
+    private final int maxPly;
+    private final int minGames;
+    private final int[] buffer = new int[MoveGenerator.MAX_MOVES];
+    // Position key -> encoded book move -> {games, score}
+    private final Map<Long, Map<Integer, int[]>> positions = new HashMap<>();
+    private long games;
+
+    // Only the first maxPly plies of each game are taken, and a move must occur in at least minGames games
+    public BookBuilder(int maxPly, int minGames) {
+        this.maxPly = maxPly;
+        this.minGames = Math.max(1, minGames);
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public int getPositions() {
+        return positions.size();
+    }
+
+    // Games are taken up to their first unreadable move
+    public void add(PgnGame game){
+        games++;
+        String fen = game.getFen();
+        BitBoard position = Fen.parse(fen != null ? fen : Fen.START_POSITION);
+        String result = game.getResult();
+        int whiteScore = result.equals("1-0") ? 2 : result.equals("1/2-1/2") ? 1 : 0;
+        int blackScore = result.equals("0-1") ? 2 : result.equals("1/2-1/2") ? 1 : 0;
+        List<String> moves = game.getMoves();
+        for(int i = 0; i < moves.size() && i < maxPly; i++){
+            int move;
+            try{
+                move = San.parse(position, moves.get(i), buffer);
+            }
+            catch(ChessException e){
+                return;
+            }
+            int[] stats = positions.computeIfAbsent(PolyglotKey.of(position), k -> new HashMap<>())
+                    .computeIfAbsent(OpeningBook.encode(move), k -> new int[2]);
+            stats[0]++;
+            stats[1] += position.getSideToMove() == BitBoard.WHITE ? whiteScore : blackScore;
+            position.makeMove(move);
+        }
+    }
+
+    // Writes the book sorted by key, heaviest move first within a position. Returns the number of entries
+    public int write(Path path) throws IOException {
+        List<long[]> entries = new ArrayList<>();
+        for(Map.Entry<Long, Map<Integer, int[]>> position : positions.entrySet()){
+            int maxScore = 0;
+            for(int[] stats : position.getValue().values()) maxScore = Math.max(maxScore, stats[1]);
+            for(Map.Entry<Integer, int[]> move : position.getValue().entrySet()){
+                int[] stats = move.getValue();
+                if(stats[0] < minGames || stats[1] == 0) continue;
+                // Weights are 16 bits, so heavily played positions are scaled down
+                int weight = maxScore <= 0xFFFF ? stats[1] : (int) Math.max(1, (long) stats[1] * 0xFFFF / maxScore);
+                entries.add(new long[]{position.getKey(), move.getKey(), weight});
+            }
+        }
+        entries.sort((a, b) -> a[0] != b[0] ? Long.compareUnsigned(a[0], b[0]) : Long.compare(b[2], a[2]));
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)){
+            ByteBuffer out = ByteBuffer.allocate(OpeningBook.ENTRY_SIZE * 4096).order(ByteOrder.BIG_ENDIAN);
+            for(long[] entry : entries){
+                if(!out.hasRemaining()) flush(channel, out);
+                out.putLong(entry[0]).putShort((short) entry[1]).putShort((short) entry[2]).putInt(0);
+            }
+            flush(channel, out);
+        }
+        return entries.size();
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while(out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+}
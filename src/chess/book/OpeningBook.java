@@ -0,0 +1,135 @@
+package chess.book;
+
+import chess.bitboard.BitBoard;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// Opening book in the Polyglot .bin layout: 16-byte big-endian entries sorted by key
+//   key      8 bytes, position hash (PolyglotKey)
+//   move     2 bytes, to (6 bits) | from (6 bits) | promotion (3 bits, 1 = knight ... 4 = queen)
+//   weight   2 bytes
+//   learn    4 bytes, unused
+// Castling is stored as the king taking its own rook (e1h1). Books written by BookBuilder and by other
+// Polyglot tools can be read alike.
+//
+// The file is mapped read-only and only read with absolute gets, so one instance can serve any number of
+// threads, and every process mapping the same book shares its pages through the OS page cache
+public class OpeningBook implements Closeable {
+
+    public static final int ENTRY_SIZE = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final int size;
+
+    public OpeningBook(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        long length = channel.size();
+        if(length % ENTRY_SIZE != 0 || length > Integer.MAX_VALUE){
+            channel.close();
+            throw new IOException("Not an opening book: " + path);
+        }
+        entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        entries.order(ByteOrder.BIG_ENDIAN);
+        size = (int) (length / ENTRY_SIZE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Fills moves and weights with the book moves that are legal in the position, returning how many.
+    // Both arrays must hold MoveGenerator.MAX_MOVES; moves is also the scratch space for the legal moves,
+    // so nothing is allocated
+    public int lookup(BitBoard position, int[] moves, int[] weights){
+        long key = PolyglotKey.of(position);
+        int first = firstEntry(key);
+        if(first == size || entryKey(first) != key) return 0;
+        int legalCount = MoveGenerator.generateLegal(position, moves, 0);
+        int count = 0;
+        for(int i = first; i < size && entryKey(i) == key; i++){
+            // Matched moves are swapped to the front, the legal moves not yet matched stay behind them
+            int match = decode(entryMove(i), moves, count, legalCount);
+            if(match < 0) continue;
+            int move = moves[match];
+            moves[match] = moves[count];
+            moves[count] = move;
+            weights[count] = entryWeight(i);
+            count++;
+        }
+        return count;
+    }
+
+    // A book move picked with probability proportional to its weight, or Move.NONE when out of book.
+    // moves and weights are scratch arrays as for lookup
+    public int pick(BitBoard position, Random random, int[] moves, int[] weights){
+        int n = lookup(position, moves, weights);
+        int total = 0;
+        for(int i = 0; i < n; i++) total += weights[i];
+        if(total == 0) return n == 0 ? Move.NONE : moves[random.nextInt(n)];
+        int r = random.nextInt(total);
+        for(int i = 0; i < n; i++){
+            r -= weights[i];
+            if(r < 0) return moves[i];
+        }
+        return moves[n - 1];
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static int encode(int move){
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+        if(flags == Move.KING_CASTLE) to = to + 1;
+        else if(flags == Move.QUEEN_CASTLE) to = to - 2;
+        int promotion = Move.isPromotion(move) ? Move.promotionType(move) : 0;
+        return to | from << 6 | promotion << 12;
+    }
+
+    // Index in moves[from, to) of the legal move the book entry stands for, or -1 if there is none (a hash
+    // collision, or an entry repeated in the book). Book moves only give the squares and the promotion, with
+    // castling as king takes rook, so they are compared in that encoding
+    private static int decode(int bookMove, int[] moves, int from, int to){
+        for(int i = from; i < to; i++){
+            if(encode(moves[i]) == bookMove) return i;
+        }
+        return -1;
+    }
+
+    // Lower bound by binary search; keys are ordered as unsigned numbers
+    private int firstEntry(long key){
+        int low = 0;
+        int high = size;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(Long.compareUnsigned(entryKey(mid), key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private long entryKey(int index){
+        return entries.getLong(index * ENTRY_SIZE);
+    }
+
+    private int entryMove(int index){
+        return entries.getShort(index * ENTRY_SIZE + 8) & 0xFFFF;
+    }
+
+    private int entryWeight(int index){
+        return entries.getShort(index * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+}
@@ -0,0 +1,192 @@
+package chess.engine;
+
+import chess.bitboard.BitBoard;
+import chess.bitboard.Bitboards;
+import chess.bitboard.PieceSquareTables;
+
+// Tapered evaluation: every term has a middlegame and an endgame value, blended by the game phase.
+// Material and piece-square values come ready-made from the board, which updates them on every move;
+// only mobility, pawn structure and king safety are computed here. Not thread-safe, each search
+// thread owns one
+public class Evaluator {
+
+    // Bonus per reachable square, indexed by piece type, counted from the number of squares considered neutral
+    private static final int[] MOBILITY_MG = {0, 4, 5, 2, 1, 0};
+    private static final int[] MOBILITY_EG = {0, 4, 5, 4, 2, 0};
+    private static final int[] MOBILITY_BASE = {0, 4, 6, 7, 13, 0};
+
+    private static final int DOUBLED_MG = -10;
+    private static final int DOUBLED_EG = -20;
+    private static final int ISOLATED_MG = -10;
+    private static final int ISOLATED_EG = -15;
+    // Indexed by rank from the pawn's own side
+    private static final int[] PASSED_MG = {0, 5, 10, 15, 30, 50, 80, 0};
+    private static final int[] PASSED_EG = {0, 10, 20, 35, 60, 100, 150, 0};
+    private static final int BISHOP_PAIR_MG = 30;
+    private static final int BISHOP_PAIR_EG = 50;
+
+    // King safety only counts in the middlegame
+    private static final int SHIELD_PAWN = 12;
+    private static final int[] ATTACK_WEIGHTS = {0, 2, 2, 3, 5, 0};
+    private static final int MAX_KING_ATTACK = 500;
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // Squares ahead of a pawn on its own file, and on its own and the adjacent files
+    private static final long[][] FORWARD = new long[2][64];
+    private static final long[][] PASSED_SPAN = new long[2][64];
+    // Squares up to two ranks in front of the king on its own and the adjacent files
+    private static final long[][] SHIELD = new long[2][64];
+    private static final long[] KING_ZONE = new long[64];
+
+    static {
+        for(int file = 0; file < 8; file++) FILES[file] = Bitboards.FILE_A << file;
+        for(int file = 0; file < 8; file++){
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0) | (file < 7 ? FILES[file + 1] : 0);
+        }
+        for(int sq = 0; sq < 64; sq++){
+            int rank = Bitboards.rank(sq);
+            int file = Bitboards.file(sq);
+            long span = FILES[file] | ADJACENT_FILES[file];
+            long above = rank == 7 ? 0 : -1L << (8 * (rank + 1));
+            long below = rank == 0 ? 0 : -1L >>> (8 * (8 - rank));
+            FORWARD[BitBoard.WHITE][sq] = FILES[file] & above;
+            FORWARD[BitBoard.BLACK][sq] = FILES[file] & below;
+            PASSED_SPAN[BitBoard.WHITE][sq] = span & above;
+            PASSED_SPAN[BitBoard.BLACK][sq] = span & below;
+            long twoAbove = rank >= 6 ? above : above & (-1L >>> (8 * (5 - rank)));
+            long twoBelow = rank <= 1 ? below : below & (-1L << (8 * (rank - 2)));
+            SHIELD[BitBoard.WHITE][sq] = span & twoAbove;
+            SHIELD[BitBoard.BLACK][sq] = span & twoBelow;
+            KING_ZONE[sq] = Bitboards.KING_ATTACKS[sq] | 1L << sq;
+        }
+    }
+
+    private final PawnTable pawnTable;
+
+    // Accumulated from white's point of view during one evaluate call
+    private int middlegame;
+    private int endgame;
+
+    public Evaluator() {
+        this(new PawnTable(PawnTable.DEFAULT_ENTRIES));
+    }
+
+    public Evaluator(PawnTable pawnTable) {
+        this.pawnTable = pawnTable;
+    }
+
+    public PawnTable getPawnTable() {
+        return pawnTable;
+    }
+
+    // Score in centipawns from the side to move's point of view
+    public int evaluate(BitBoard position){
+        middlegame = position.getMiddlegameScore();
+        endgame = position.getEndgameScore();
+
+        // Pawn structure depends on nothing but the pawns, so it is looked up by the pawn key
+        long pawnKey = position.getPawnKey();
+        int entry = pawnTable.probe(pawnKey);
+        if(entry >= 0){
+            middlegame += pawnTable.middlegame(entry);
+            endgame += pawnTable.endgame(entry);
+        }
+        else {
+            int pieceMiddlegame = middlegame;
+            int pieceEndgame = endgame;
+            evaluatePawns(position, BitBoard.WHITE);
+            evaluatePawns(position, BitBoard.BLACK);
+            pawnTable.store(pawnKey, middlegame - pieceMiddlegame, endgame - pieceEndgame);
+        }
+        evaluatePieces(position, BitBoard.WHITE);
+        evaluatePieces(position, BitBoard.BLACK);
+
+        int phase = Math.min(position.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return position.getSideToMove() == BitBoard.WHITE ? score : -score;
+    }
+
+    private void evaluatePawns(BitBoard position, int color){
+        int sign = color == BitBoard.WHITE ? 1 : -1;
+        long pawns = position.pieces(color, BitBoard.PAWN);
+        long enemyPawns = position.pieces(BitBoard.opponent(color), BitBoard.PAWN);
+        int mg = 0;
+        int eg = 0;
+        for(long b = pawns; b != 0; b &= b - 1){
+            int sq = Long.numberOfTrailingZeros(b);
+            int file = Bitboards.file(sq);
+            if((pawns & ADJACENT_FILES[file]) == 0){
+                mg += ISOLATED_MG;
+                eg += ISOLATED_EG;
+            }
+            // Only the front pawn of a doubled pair can be passed
+            if((enemyPawns & PASSED_SPAN[color][sq]) == 0 && (pawns & FORWARD[color][sq]) == 0){
+                int rank = color == BitBoard.WHITE ? Bitboards.rank(sq) : 7 - Bitboards.rank(sq);
+                mg += PASSED_MG[rank];
+                eg += PASSED_EG[rank];
+            }
+        }
+        for(int file = 0; file < 8; file++){
+            int count = Long.bitCount(pawns & FILES[file]);
+            if(count > 1){
+                mg += (count - 1) * DOUBLED_MG;
+                eg += (count - 1) * DOUBLED_EG;
+            }
+        }
+        middlegame += sign * mg;
+        endgame += sign * eg;
+    }
+
+    private void evaluatePieces(BitBoard position, int color){
+        int sign = color == BitBoard.WHITE ? 1 : -1;
+        int enemy = BitBoard.opponent(color);
+        long occupied = position.occupied();
+        long enemyPawns = position.pieces(enemy, BitBoard.PAWN);
+        long enemyPawnAttacks = color == BitBoard.WHITE
+                ? ((enemyPawns >>> 7) & ~Bitboards.FILE_A) | ((enemyPawns >>> 9) & ~Bitboards.FILE_H)
+                : ((enemyPawns << 9) & ~Bitboards.FILE_A) | ((enemyPawns << 7) & ~Bitboards.FILE_H);
+        // Squares worth counting for mobility: not blocked by our own pieces and not covered by enemy pawns
+        long mobilityArea = ~position.occupancy(color) & ~enemyPawnAttacks;
+        int enemyKing = position.kingSquare(enemy);
+        long kingZone = enemyKing == BitBoard.NO_SQUARE ? 0 : KING_ZONE[enemyKing];
+
+        int mg = 0;
+        int eg = 0;
+        int attackers = 0;
+        int attackUnits = 0;
+        for(int type = BitBoard.KNIGHT; type <= BitBoard.QUEEN; type++){
+            for(long b = position.pieces(color, type); b != 0; b &= b - 1){
+                int sq = Long.numberOfTrailingZeros(b);
+                long attacks;
+                if(type == BitBoard.KNIGHT) attacks = Bitboards.KNIGHT_ATTACKS[sq];
+                else if(type == BitBoard.BISHOP) attacks = Bitboards.bishopAttacks(sq, occupied);
+                else if(type == BitBoard.ROOK) attacks = Bitboards.rookAttacks(sq, occupied);
+                else attacks = Bitboards.queenAttacks(sq, occupied);
+
+                int mobility = Long.bitCount(attacks & mobilityArea) - MOBILITY_BASE[type];
+                mg += mobility * MOBILITY_MG[type];
+                eg += mobility * MOBILITY_EG[type];
+                long zoneAttacks = attacks & kingZone;
+                if(zoneAttacks != 0){
+                    attackers++;
+                    attackUnits += ATTACK_WEIGHTS[type] * Long.bitCount(zoneAttacks);
+                }
+            }
+        }
+        // A lone attacker is rarely dangerous; the danger grows quickly with the pressure
+        if(attackers >= 2) mg += Math.min(attackUnits * attackUnits / 4, MAX_KING_ATTACK);
+
+        if(Long.bitCount(position.pieces(color, BitBoard.BISHOP)) >= 2){
+            mg += BISHOP_PAIR_MG;
+            eg += BISHOP_PAIR_EG;
+        }
+
+        int king = position.kingSquare(color);
+        if(king != BitBoard.NO_SQUARE){
+            mg += SHIELD_PAWN * Long.bitCount(position.pieces(color, BitBoard.PAWN) & SHIELD[color][king]);
+        }
+        middlegame += sign * mg;
+        endgame += sign * eg;
+    }
+}
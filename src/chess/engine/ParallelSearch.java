@@ -0,0 +1,119 @@
+package chess.engine;
+
+import chess.bitboard.BitBoard;
+import chess.tablebase.Tablebases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class ParallelSearch {
+
+    private final TranspositionTable table;
+    private final Search[] searches;
+    private final ExecutorService helpers;
+
+    // Lazy SMP: every thread searches its own copy of the position and they only share the table
+    public ParallelSearch(TranspositionTable table, int threads) {
+        if(threads < 1) throw new IllegalArgumentException("Search needs at least one thread");
+        this.table = table;
+        searches = new Search[threads];
+        for(int i = 0; i < threads; i++){
+            searches[i] = new Search(table);
+            searches[i].setHelper(i);
+        }
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread t = new Thread(r, "search-helper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int getThreads() {
+        return searches.length;
+    }
+
+    // Only the main search reports iterations, with the node count of all threads
+    public void setListener(SearchListener listener){
+        searches[0].setListener(listener == null ? null : result -> listener.iterationCompleted(
+                new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), getNodes(),
+                        result.getTimeMs(), result.getPrincipalVariation())));
+    }
+
+    public long getNodes(){
+        long nodes = 0;
+        for(Search s : searches) nodes += s.getNodes();
+        return nodes;
+    }
+
+    public void setTablebases(Tablebases tablebases){
+        for(Search s : searches) s.setTablebases(tablebases);
+    }
+
+    public long getTablebaseHits(){
+        long hits = 0;
+        for(Search s : searches) hits += s.getTablebaseHits();
+        return hits;
+    }
+
+    // Over all threads' pawn tables
+    public double pawnHitRate(){
+        long probes = 0;
+        long hits = 0;
+        for(Search s : searches){
+            probes += s.getPawnTable().getProbes();
+            hits += s.getPawnTable().getHits();
+        }
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    // The calling thread runs the main search; its result is the one returned
+    public SearchResult search(BitBoard root, SearchLimits limits){
+        table.newSearch();
+        List<Future<SearchResult>> futures = new ArrayList<>(searches.length - 1);
+        for(int i = 1; i < searches.length; i++){
+            Search helper = searches[i];
+            futures.add(helpers.submit(() -> helper.search(root, limits)));
+        }
+
+        SearchResult main = searches[0].search(root, limits);
+        long nodes = main.getNodes();
+        for(int i = 1; i < searches.length; i++) nodes += awaitHelper(searches[i], futures.get(i - 1));
+
+        return new SearchResult(main.getBestMove(), main.getScore(), main.getDepth(), nodes,
+                main.getTimeMs(), main.getPrincipalVariation());
+    }
+
+    public void stop(){
+        for(Search s : searches) s.stop();
+    }
+
+    public void shutdown(){
+        if(helpers != null) helpers.shutdownNow();
+    }
+
+    // A helper that hadn't started yet would clear an earlier stop, so keep stopping until it returns
+    private long awaitHelper(Search helper, Future<SearchResult> future){
+        while(true){
+            helper.stop();
+            try {
+                return future.get(1, TimeUnit.MILLISECONDS).getNodes();
+            }
+            catch (TimeoutException e){
+                // still running, stop it again
+            }
+            catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                return helper.getNodes();
+            }
+            catch (ExecutionException e){
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package chess.engine;
+
+// Direct-mapped cache of pawn structure scores keyed on BitBoard.getPawnKey(). Pawn moves are rare
+// compared with piece moves, so most positions in a search reuse an entry. Owned by one search thread
+public class PawnTable {
+
+    public static final int DEFAULT_ENTRIES = 1 << 14;
+
+    private final long[] keys;
+    // Middlegame and endgame score from white's point of view, two ints per entry
+    private final int[] scores;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    public PawnTable(int entries) {
+        if(Integer.bitCount(entries) != 1) throw new IllegalArgumentException("Pawn table size must be a power of two");
+        keys = new long[entries];
+        scores = new int[2 * entries];
+        mask = entries - 1;
+        // Slot 0 would otherwise pass for the pawnless position, so mark every slot empty
+        for(int i = 0; i < entries; i++) keys[i] = ~(long) i;
+    }
+
+    // Index of the entry holding the key, or -1 when it isn't cached
+    public int probe(long pawnKey){
+        probes++;
+        int index = (int) pawnKey & mask;
+        if(keys[index] != pawnKey) return -1;
+        hits++;
+        return index;
+    }
+
+    public void store(long pawnKey, int middlegame, int endgame){
+        int index = (int) pawnKey & mask;
+        keys[index] = pawnKey;
+        scores[2 * index] = middlegame;
+        scores[2 * index + 1] = endgame;
+    }
+
+    public int middlegame(int index){
+        return scores[2 * index];
+    }
+
+    public int endgame(int index){
+        return scores[2 * index + 1];
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public double hitRate(){
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+}
@@ -0,0 +1,316 @@
+package chess.engine;
+
+import chess.bitboard.BitBoard;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+import chess.tablebase.Tablebases;
+
+import java.util.Arrays;
+
+public class Search {
+
+    public static final int MAX_PLY = 128;
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+
+    private static final int TT_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator = new Evaluator();
+
+    private BitBoard position;
+    private final int[][] moves = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+    private final int[][] moveScores = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    // Indexed by [piece][target square]
+    private final int[][] history = new int[12][64];
+
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private volatile boolean stopped;
+    // Lazy SMP helpers start on different depths so threads don't all search the same tree
+    private int depthOffset;
+    private SearchListener listener;
+    // Shared by all threads, may be null
+    private Tablebases tablebases;
+    private long tablebaseHits;
+
+    public Search(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public static boolean isMateScore(int score){
+        return Math.abs(score) >= MATE - MAX_PLY;
+    }
+
+    // Safe to call from another thread; the search returns its last completed iteration
+    public void stop(){
+        stopped = true;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTablebaseHits() {
+        return tablebaseHits;
+    }
+
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    public PawnTable getPawnTable() {
+        return evaluator.getPawnTable();
+    }
+
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    void setHelper(int id){
+        depthOffset = id & 1;
+    }
+
+    public SearchResult search(BitBoard root, SearchLimits limits){
+        position = new BitBoard(root);
+        long start = System.currentTimeMillis();
+        deadline = limits.getTimeMs() > 0 ? start + limits.getTimeMs() : Long.MAX_VALUE;
+        maxNodes = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        nodes = 0;
+        tablebaseHits = 0;
+        stopped = false;
+        ageHistory();
+
+        int bestMove = Move.NONE;
+        int bestScore = 0;
+        int completedDepth = 0;
+        int[] bestPv = new int[0];
+
+        for(int depth = 1 + depthOffset; depth <= limits.getDepth(); depth++){
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+            // A partial iteration is only trusted when nothing better is available
+            if(stopped && completedDepth > 0) break;
+            if(pvLength[0] > 0){
+                bestMove = pv[0][0];
+                bestScore = score;
+                completedDepth = depth;
+                bestPv = Arrays.copyOf(pv[0], pvLength[0]);
+                if(listener != null && !stopped)
+                    listener.iterationCompleted(new SearchResult(bestMove, bestScore, completedDepth, nodes,
+                            System.currentTimeMillis() - start, bestPv));
+            }
+            if(stopped || pvLength[0] == 0) break;
+            // No point searching deeper once a forced mate has been found
+            if(isMateScore(score) && MATE - Math.abs(score) <= depth) break;
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes,
+                System.currentTimeMillis() - start, bestPv);
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta){
+        pvLength[ply] = 0;
+        if((nodes & 2047) == 0) checkLimits();
+        if(stopped) return 0;
+        if(ply >= MAX_PLY) return evaluator.evaluate(position);
+        // A single repetition is scored as a draw: if repeating was good once it will be again
+        if(ply > 0 && (position.isRepetition() || position.isFiftyMoveDraw() || position.hasInsufficientMaterial())) return 0;
+        // Known endings are scored exactly, mates included, instead of being searched
+        if(ply > 0 && tablebases != null && Long.bitCount(position.occupied()) <= Tablebases.MAX_PIECES){
+            int result = tablebases.probe(position);
+            if(result != Tablebases.UNKNOWN){
+                tablebaseHits++;
+                if(result == Tablebases.DRAW) return 0;
+                int score = MATE - ply - tablebases.distanceToMate(position);
+                return result == Tablebases.WIN ? score : -score;
+            }
+        }
+
+        int color = position.getSideToMove();
+        boolean inCheck = position.isInCheck(color);
+        if(inCheck) depth++;
+        if(depth <= 0) return quiesce(ply, alpha, beta);
+        nodes++;
+
+        long key = position.getKey();
+        int ttMove = Move.NONE;
+        long entry = table.probe(key);
+        if(entry != 0){
+            ttMove = TranspositionTable.move(entry);
+            if(ply > 0 && TranspositionTable.depth(entry) >= depth){
+                int ttScore = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if(bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && ttScore >= beta)
+                        || (bound == TranspositionTable.UPPER && ttScore <= alpha))
+                    return ttScore;
+            }
+        }
+
+        int[] list = moves[ply];
+        int n = MoveGenerator.generate(position, list, 0);
+        scoreMoves(ply, n, ttMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        int legal = 0;
+
+        for(int i = 0; i < n; i++){
+            int move = pickMove(ply, i, n);
+            position.makeMove(move);
+            if(position.isInCheck(color)){
+                position.undoMove();
+                continue;
+            }
+            legal++;
+
+            int score;
+            if(legal == 1) score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            else {
+                score = -negamax(depth - 1, ply + 1, -alpha - 1, -alpha);
+                if(score > alpha && score < beta) score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            }
+            position.undoMove();
+            if(stopped) return 0;
+
+            if(score > bestScore){
+                bestScore = score;
+                bestMove = move;
+                if(score > alpha){
+                    alpha = score;
+                    updatePv(ply, move);
+                    if(alpha >= beta){
+                        if(!Move.isCapture(move) && !Move.isPromotion(move)) rememberQuiet(ply, move, depth);
+                        break;
+                    }
+                }
+            }
+        }
+
+        if(legal == 0) return inCheck ? -MATE + ply : 0;
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    private int quiesce(int ply, int alpha, int beta){
+        pvLength[ply] = 0;
+        if((nodes & 2047) == 0) checkLimits();
+        if(stopped) return 0;
+        nodes++;
+
+        int standPat = evaluator.evaluate(position);
+        if(ply >= MAX_PLY || standPat >= beta) return standPat;
+        if(standPat > alpha) alpha = standPat;
+
+        int color = position.getSideToMove();
+        int n = MoveGenerator.generateCaptures(position, moves[ply], 0);
+        scoreMoves(ply, n, Move.NONE);
+
+        for(int i = 0; i < n; i++){
+            int move = pickMove(ply, i, n);
+            position.makeMove(move);
+            if(position.isInCheck(color)){
+                position.undoMove();
+                continue;
+            }
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            position.undoMove();
+            if(stopped) return 0;
+
+            if(score > alpha){
+                alpha = score;
+                if(alpha >= beta) break;
+            }
+        }
+        return alpha;
+    }
+
+    // Hash move first, then captures by most valuable victim / least valuable attacker, killers, history
+    private void scoreMoves(int ply, int n, int ttMove){
+        int[] list = moves[ply];
+        int[] scores = moveScores[ply];
+        for(int i = 0; i < n; i++){
+            int move = list[i];
+            if(move == ttMove) scores[i] = TT_MOVE_SCORE;
+            else if(Move.isCapture(move) || Move.isPromotion(move)){
+                int victim = Move.flags(move) == Move.EN_PASSANT ? BitBoard.PAWN
+                        : position.isEmpty(Move.to(move)) ? BitBoard.PAWN : BitBoard.typeOf(position.pieceAt(Move.to(move)));
+                int attacker = BitBoard.typeOf(position.pieceAt(Move.from(move)));
+                scores[i] = CAPTURE_SCORE + victim * 16 - attacker
+                        + (Move.isPromotion(move) ? Move.promotionType(move) * 64 : 0);
+            }
+            else if(move == killers[ply][0]) scores[i] = KILLER_SCORE + 1;
+            else if(move == killers[ply][1]) scores[i] = KILLER_SCORE;
+            else scores[i] = history[position.pieceAt(Move.from(move))][Move.to(move)];
+        }
+    }
+
+    // Selection sort step: brings the best remaining move to index i
+    private int pickMove(int ply, int i, int n){
+        int[] list = moves[ply];
+        int[] scores = moveScores[ply];
+        int best = i;
+        for(int j = i + 1; j < n; j++){
+            if(scores[j] > scores[best]) best = j;
+        }
+        int move = list[best];
+        list[best] = list[i];
+        list[i] = move;
+        int score = scores[best];
+        scores[best] = scores[i];
+        scores[i] = score;
+        return move;
+    }
+
+    private void rememberQuiet(int ply, int move, int depth){
+        if(killers[ply][0] != move){
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] row = history[position.pieceAt(Move.from(move))];
+        int to = Move.to(move);
+        row[to] = Math.min(row[to] + depth * depth, KILLER_SCORE - 1);
+    }
+
+    private void updatePv(int ply, int move){
+        pv[ply][0] = move;
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    private void ageHistory(){
+        for(int[] row : history){
+            for(int i = 0; i < row.length; i++) row[i] >>= 1;
+        }
+        for(int[] k : killers){
+            k[0] = Move.NONE;
+            k[1] = Move.NONE;
+        }
+    }
+
+    private void checkLimits(){
+        if(nodes >= maxNodes || System.currentTimeMillis() >= deadline) stopped = true;
+    }
+
+    // Mate scores are stored relative to the node so they stay valid when reached through another path
+    private static int toTable(int score, int ply){
+        if(score >= MATE - MAX_PLY) return score + ply;
+        if(score <= -MATE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply){
+        if(score >= MATE - MAX_PLY) return score - ply;
+        if(score <= -MATE + MAX_PLY) return score + ply;
+        return score;
+    }
+}
@@ -0,0 +1,57 @@
+package chess.engine;
+
+public class SearchLimits {
+
+    private int depth = Search.MAX_PLY - 1;
+    private long timeMs;
+    private long nodes;
+
+    public static SearchLimits depth(int depth){
+        SearchLimits limits = new SearchLimits();
+        limits.depth = depth;
+        return limits;
+    }
+
+    public static SearchLimits time(long timeMs){
+        SearchLimits limits = new SearchLimits();
+        limits.timeMs = timeMs;
+        return limits;
+    }
+
+    public static SearchLimits nodes(long nodes){
+        SearchLimits limits = new SearchLimits();
+        limits.nodes = nodes;
+        return limits;
+    }
+
+    // Runs until stopped from another thread
+    public static SearchLimits infinite(){
+        return new SearchLimits();
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = Math.min(depth, Search.MAX_PLY - 1);
+    }
+
+    // Zero means no time limit
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    public void setTimeMs(long timeMs) {
+        this.timeMs = timeMs;
+    }
+
+    // Zero means no node limit
+    public long getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(long nodes) {
+        this.nodes = nodes;
+    }
+}
@@ -0,0 +1,7 @@
+package chess.engine;
+
+public interface SearchListener {
+
+    // Called on the searching thread after each completed iteration
+    void iterationCompleted(SearchResult result);
+}
@@ -0,0 +1,61 @@
+package chess.engine;
+
+import chess.bitboard.Move;
+
+public class SearchResult {
+
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeMs;
+    private final int[] principalVariation;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long timeMs, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMs = timeMs;
+        this.principalVariation = principalVariation;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    // Centipawns from the side to move's point of view, or a mate score (see Search.isMateScore)
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    public long getNodesPerSecond(){
+        return timeMs == 0 ? nodes * 1000 : nodes * 1000 / timeMs;
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder();
+        for(int move : principalVariation){
+            if(sb.length() > 0) sb.append(' ');
+            sb.append(Move.toString(move));
+        }
+        return "depth " + depth + " score " + score + " nodes " + nodes + " pv " + sb;
+    }
+}
@@ -0,0 +1,147 @@
+package chess.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TranspositionTable {
+
+    public static final int BOUND_NONE = 0;
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    // Each entry takes two longs (key ^ data, data); four entries make a 64-byte bucket
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_LONGS = ENTRY_LONGS * BUCKET_ENTRIES;
+    private static final int AGE_MASK = 0x3F;
+
+    private final long[] table;
+    private final long bucketMask;
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    public TranspositionTable(int sizeMb) {
+        if(sizeMb < 1) throw new IllegalArgumentException("Transposition table needs at least 1 MB");
+        long bytes = (long) sizeMb * 1024 * 1024;
+        long buckets = Long.highestOneBit(bytes / (BUCKET_LONGS * Long.BYTES));
+        // A Java array holds at most 2^31 - 1 longs
+        buckets = Math.min(buckets, 1L << 27);
+        table = new long[(int) (buckets * BUCKET_LONGS)];
+        bucketMask = buckets - 1;
+    }
+
+    // Data layout: move (16 bits) | score (16) | depth (8) | bound (2) | age (6)
+    public static int move(long data){
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data){
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data){
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data){
+        return (int) ((data >>> 40) & 3);
+    }
+
+    private static int age(long data){
+        return (int) ((data >>> 42) & AGE_MASK);
+    }
+
+    // Returns the entry's data, or 0 when the position isn't stored (a stored entry always has a bound)
+    public long probe(long key){
+        probes.increment();
+        int base = bucketIndex(key);
+        for(int i = 0; i < BUCKET_LONGS; i += ENTRY_LONGS){
+            long data = table[base + i + 1];
+            if((table[base + i] ^ data) == key && bound(data) != BOUND_NONE){
+                hits.increment();
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound){
+        int base = bucketIndex(key);
+        int currentAge = age;
+        int replace = -1;
+        int worstPriority = Integer.MAX_VALUE;
+
+        for(int i = 0; i < BUCKET_LONGS; i += ENTRY_LONGS){
+            long data = table[base + i + 1];
+            if(bound(data) != BOUND_NONE && (table[base + i] ^ data) == key){
+                // Same position: keep the deeper result from this search unless the new one is exact
+                if(bound != EXACT && depth < depth(data) && age(data) == currentAge) return;
+                if(move == 0) move = move(data);
+                replace = i;
+                break;
+            }
+            // Empty slots go first, then depth-preferred with 8 plies of priority lost per search of age
+            int priority = (bound(data) == BOUND_NONE) ? Integer.MIN_VALUE
+                    : depth(data) - 8 * ((currentAge - age(data)) & AGE_MASK);
+            if(priority < worstPriority){
+                worstPriority = priority;
+                replace = i;
+            }
+        }
+
+        long data = (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) Math.min(Math.max(depth, 0), 255) << 32)
+                | ((long) bound << 40)
+                | ((long) currentAge << 42);
+        table[base + replace] = key ^ data;
+        table[base + replace + 1] = data;
+    }
+
+    // Called once per search so entries from earlier searches become preferred victims
+    public void newSearch(){
+        age = (age + 1) & AGE_MASK;
+    }
+
+    public void clear(){
+        Arrays.fill(table, 0);
+        probes.reset();
+        hits.reset();
+    }
+
+    public double hitRate(){
+        long p = probes.sum();
+        return p == 0 ? 0 : (double) hits.sum() / p;
+    }
+
+    public double fillRatio(){
+        long used = 0;
+        for(int i = 1; i < table.length; i += ENTRY_LONGS){
+            if(bound(table[i]) != BOUND_NONE) used++;
+        }
+        return (double) used / (table.length / ENTRY_LONGS);
+    }
+
+    // Permille of a sample of entries written during the current search, as reported by UCI engines
+    public int hashfull(){
+        int sample = Math.min(1000, table.length / ENTRY_LONGS);
+        int used = 0;
+        int currentAge = age;
+        for(int i = 0; i < sample; i++){
+            long data = table[i * ENTRY_LONGS + 1];
+            if(bound(data) != BOUND_NONE && age(data) == currentAge) used++;
+        }
+        return used * 1000 / sample;
+    }
+
+    public int sizeMb(){
+        return (int) ((long) table.length * Long.BYTES / (1024 * 1024));
+    }
+
+    private int bucketIndex(long key){
+        return (int) ((key >>> 1) & bucketMask) * BUCKET_LONGS;
+    }
+}
@@ -0,0 +1,163 @@
+package chess.notation;
+
+import chess.ChessException;
+import chess.bitboard.BitBoard;
+import chess.bitboard.Bitboards;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+
+public final class San {
+
+    private static final String PIECE_LETTERS = "PNBRQK";
+
+    private San() {
+    }
+
+    public static String toSan(BitBoard position, int move, int[] buffer){
+        return appendSan(new StringBuilder(8), position, move, buffer).toString();
+    }
+
+    // Writes a legal move in SAN, with check and mate marks. The position is played into and restored,
+    // so it must not be shared with another thread; the buffer must hold MAX_MOVES
+    public static StringBuilder appendSan(StringBuilder sb, BitBoard position, int move, int[] buffer){
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+        if(flags == Move.KING_CASTLE) sb.append("O-O");
+        else if(flags == Move.QUEEN_CASTLE) sb.append("O-O-O");
+        else {
+            int type = BitBoard.typeOf(position.pieceAt(from));
+            if(type == BitBoard.PAWN){
+                if(Move.isCapture(move)) sb.append((char)('a' + Bitboards.file(from)));
+            }
+            else {
+                sb.append(PIECE_LETTERS.charAt(type));
+                appendDisambiguation(sb, position, move, type, buffer);
+            }
+            if(Move.isCapture(move)) sb.append('x');
+            sb.append(Bitboards.squareName(to));
+            if(Move.isPromotion(move)) sb.append('=').append(PIECE_LETTERS.charAt(Move.promotionType(move)));
+        }
+
+        position.makeMove(move);
+        if(position.isInCheck(position.getSideToMove()))
+            sb.append(MoveGenerator.generateLegal(position, buffer, 0) == 0 ? '#' : '+');
+        position.undoMove();
+        return sb;
+    }
+
+    // File if it tells the candidates apart, else rank, else both
+    private static void appendDisambiguation(StringBuilder sb, BitBoard position, int move, int type, int[] buffer){
+        int from = Move.from(move);
+        int to = Move.to(move);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        int n = MoveGenerator.generateLegal(position, buffer, 0);
+        for(int i = 0; i < n; i++){
+            int other = Move.from(buffer[i]);
+            if(other == from || Move.to(buffer[i]) != to || BitBoard.typeOf(position.pieceAt(other)) != type) continue;
+            ambiguous = true;
+            if(Bitboards.file(other) == Bitboards.file(from)) sameFile = true;
+            if(Bitboards.rank(other) == Bitboards.rank(from)) sameRank = true;
+        }
+        if(!ambiguous) return;
+        if(!sameFile) sb.append((char)('a' + Bitboards.file(from)));
+        else if(!sameRank) sb.append((char)('1' + Bitboards.rank(from)));
+        else sb.append(Bitboards.squareName(from));
+    }
+
+    // Resolves a SAN move against the legal moves of the position. The buffer must hold MAX_MOVES
+    public static int parse(BitBoard position, CharSequence san, int[] buffer){
+        int end = san.length();
+        while(end > 0 && isAnnotation(san.charAt(end - 1))) end--;
+        if(end < 2) throw new ChessException("Invalid move: " + san);
+
+        int n = MoveGenerator.generateLegal(position, buffer, 0);
+
+        int castle = castlingFlag(san, end);
+        if(castle != -1){
+            for(int i = 0; i < n; i++){
+                if(Move.flags(buffer[i]) == castle) return buffer[i];
+            }
+            throw new ChessException("Illegal move: " + san);
+        }
+
+        int promotion = BitBoard.NO_PIECE;
+        int last = pieceType(san.charAt(end - 1));
+        if(last != BitBoard.NO_PIECE && last != BitBoard.KING){
+            char before = san.charAt(end - 2);
+            if(before == '=' || isRank(before)){
+                promotion = last;
+                end -= before == '=' ? 2 : 1;
+            }
+        }
+        int to = Bitboards.parseSquare(san, end - 2);
+        if(to == BitBoard.NO_SQUARE) throw new ChessException("Invalid move: " + san);
+
+        int start = 0;
+        int type = pieceType(san.charAt(0));
+        if(type == BitBoard.NO_PIECE) type = BitBoard.PAWN;
+        else start = 1;
+
+        int fromFile = -1;
+        int fromRank = -1;
+        for(int i = start; i < end - 2; i++){
+            char c = san.charAt(i);
+            if(isFile(c)) fromFile = c - 'a';
+            else if(isRank(c)) fromRank = c - '1';
+            else if(c != 'x' && c != ':' && c != '-') throw new ChessException("Invalid move: " + san);
+        }
+
+        // A pawn move without a source file stays on its file, so "b5" never matches axb5
+        if(type == BitBoard.PAWN && fromFile == -1) fromFile = Bitboards.file(to);
+
+        int found = Move.NONE;
+        for(int i = 0; i < n; i++){
+            int move = buffer[i];
+            int from = Move.from(move);
+            if(Move.to(move) != to || BitBoard.typeOf(position.pieceAt(from)) != type) continue;
+            if(fromFile != -1 && Bitboards.file(from) != fromFile) continue;
+            if(fromRank != -1 && Bitboards.rank(from) != fromRank) continue;
+            if(Move.isPromotion(move) ? Move.promotionType(move) != promotion : promotion != BitBoard.NO_PIECE)
+                continue;
+            if(found != Move.NONE) throw new ChessException("Ambiguous move: " + san);
+            found = move;
+        }
+        if(found == Move.NONE) throw new ChessException("Illegal move: " + san);
+        return found;
+    }
+
+    // Castling flag for "O-O"/"O-O-O" (zeros accepted too), or -1
+    private static int castlingFlag(CharSequence san, int end){
+        if(end != 3 && end != 5) return -1;
+        for(int i = 0; i < end; i++){
+            char c = san.charAt(i);
+            if((i & 1) == 0 ? c != 'O' && c != '0' : c != '-') return -1;
+        }
+        return end == 3 ? Move.KING_CASTLE : Move.QUEEN_CASTLE;
+    }
+
+    private static int pieceType(char c){
+        switch(c){
+            case 'N': return BitBoard.KNIGHT;
+            case 'B': return BitBoard.BISHOP;
+            case 'R': return BitBoard.ROOK;
+            case 'Q': return BitBoard.QUEEN;
+            case 'K': return BitBoard.KING;
+            default: return BitBoard.NO_PIECE;
+        }
+    }
+
+    private static boolean isAnnotation(char c){
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static boolean isFile(char c){
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean isRank(char c){
+        return c >= '1' && c <= '8';
+    }
+}
@@ -0,0 +1,42 @@
+package chess.notation;
+
+import chess.ChessException;
+import chess.bitboard.BitBoard;
+import chess.bitboard.Bitboards;
+import chess.bitboard.Move;
+import chess.bitboard.MoveGenerator;
+
+// Long algebraic notation as used by the UCI protocol. Moves are written with Move.toString
+public final class Uci {
+
+    private Uci() {
+    }
+
+    // Resolves "e2e4" or "e7e8q" against the legal moves of the position. The buffer must hold MAX_MOVES
+    public static int parse(BitBoard position, CharSequence uci, int[] buffer){
+        int length = uci.length();
+        int from = Bitboards.parseSquare(uci, 0);
+        int to = Bitboards.parseSquare(uci, 2);
+        if(from == BitBoard.NO_SQUARE || to == BitBoard.NO_SQUARE || length > 5)
+            throw new ChessException("Invalid move: " + uci);
+        int promotion = BitBoard.NO_PIECE;
+        if(length == 5){
+            switch(Character.toLowerCase(uci.charAt(4))){
+                case 'n': promotion = BitBoard.KNIGHT; break;
+                case 'b': promotion = BitBoard.BISHOP; break;
+                case 'r': promotion = BitBoard.ROOK; break;
+                case 'q': promotion = BitBoard.QUEEN; break;
+                default: throw new ChessException("Invalid move: " + uci);
+            }
+        }
+
+        int n = MoveGenerator.generateLegal(position, buffer, 0);
+        for(int i = 0; i < n; i++){
+            int move = buffer[i];
+            if(Move.from(move) != from || Move.to(move) != to) continue;
+            if(Move.isPromotion(move) ? Move.promotionType(move) == promotion : promotion == BitBoard.NO_PIECE)
+                return move;
+        }
+        throw new ChessException("Illegal move: " + uci);
+    }
+}
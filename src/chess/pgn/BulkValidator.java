@@ -0,0 +1,107 @@
+package chess.pgn;
+
+import chess.ChessException;
+import chess.ChessMatch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Replays a PGN archive on a fork/join pool. The file is split on game boundaries and each leaf task
+// reads its own chunk, so workers share nothing until their reports are merged
+public class BulkValidator {
+
+    private final ForkJoinPool pool;
+    private long splitNanos;
+
+    public BulkValidator(int threads) {
+        pool = new ForkJoinPool(threads);
+    }
+
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    public long getSplitNanos() {
+        return splitNanos;
+    }
+
+    public ValidationReport validate(Path path, long chunkSize) throws IOException {
+        long start = System.nanoTime();
+        long[] bounds = PgnSplitter.split(path, chunkSize);
+        splitNanos = System.nanoTime() - start;
+        try{
+            return pool.invoke(new ChunkTask(path, bounds, 0, bounds.length - 1));
+        }
+        catch(UncheckedIOException e){
+            throw e.getCause();
+        }
+    }
+
+    public void shutdown(){
+        pool.shutdown();
+    }
+
+    private static ValidationReport validateChunk(Path path, long start, long end){
+        ValidationReport report = new ValidationReport();
+        long parseNanos = 0;
+        long replayNanos = 0;
+        try(PgnReader reader = PgnReader.open(path, start, end)){
+            while(true){
+                long t0 = System.nanoTime();
+                PgnGame game = reader.next();
+                long t1 = System.nanoTime();
+                parseNanos += t1 - t0;
+                if(game == null) break;
+
+                report.addGame(game);
+                try{
+                    ChessMatch chessMatch = GameReplayer.replay(game);
+                    report.addValid(game.getMoves().size(), chessMatch.getCheckmate(), chessMatch.getStalemate());
+                }
+                catch(ChessException e){
+                    report.addInvalid(reader.getGameOffset(), e.getMessage());
+                }
+                replayNanos += System.nanoTime() - t1;
+            }
+            report.addTimes(reader.getBytesRead(), parseNanos, replayNanos);
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+        return report;
+    }
+
+    // Covers chunks [from, to); splits in half until a single chunk is left. Only ever run on the pool,
+    // never serialized
+    @SuppressWarnings("serial")
+    private static class ChunkTask extends RecursiveTask<ValidationReport> {
+
+        private final Path path;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+
+        ChunkTask(Path path, long[] bounds, int from, int to) {
+            this.path = path;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ValidationReport compute() {
+            if(to - from <= 1){
+                if(to == from) return new ValidationReport();
+                return validateChunk(path, bounds[from], bounds[to]);
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(path, bounds, from, middle);
+            left.fork();
+            ValidationReport right = new ChunkTask(path, bounds, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
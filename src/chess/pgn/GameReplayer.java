@@ -0,0 +1,32 @@
+package chess.pgn;
+
+import chess.ChessException;
+import chess.ChessMatch;
+
+import java.util.List;
+
+public final class GameReplayer {
+
+    private GameReplayer() {
+    }
+
+    // Plays every move of the game through the rules engine and returns the final position.
+    // Throws ChessException naming the first move that can't be played
+    public static ChessMatch replay(PgnGame game){
+        String fen = game.getFen();
+        ChessMatch chessMatch = fen != null ? new ChessMatch(fen) : new ChessMatch();
+        List<String> moves = game.getMoves();
+        for(int i = 0; i < moves.size(); i++){
+            String san = moves.get(i);
+            if(chessMatch.getCheckmate() || chessMatch.getStalemate())
+                throw new ChessException("Move " + san + " at ply " + (i + 1) + " after the game ended");
+            try{
+                chessMatch.performMove(chessMatch.parseSan(san));
+            }
+            catch(ChessException e){
+                throw new ChessException(e.getMessage() + " at ply " + (i + 1));
+            }
+        }
+        return chessMatch;
+    }
+}
@@ -0,0 +1,50 @@
+package chess.pgn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PgnGame {
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final List<String> moves = new ArrayList<>();
+    private String result = "*";
+
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    public String getTag(String name){
+        return tags.get(name);
+    }
+
+    // Moves in SAN, as written in the movetext
+    public List<String> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+
+    // "1-0", "0-1", "1/2-1/2" or "*"
+    public String getResult() {
+        return result;
+    }
+
+    // Starting position for games that don't begin from the initial setup
+    public String getFen(){
+        return tags.get("FEN");
+    }
+
+    void putTag(String name, String value){
+        tags.put(name, value);
+        if(name.equals("Result")) result = value;
+    }
+
+    void addMove(String san){
+        moves.add(san);
+    }
+
+    void setResult(String result){
+        this.result = result;
+    }
+}
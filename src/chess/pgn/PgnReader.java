@@ -0,0 +1,233 @@
+package chess.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads games one at a time through a fixed-size buffer, so memory use doesn't depend on the file size
+public class PgnReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int EOF = -1;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private byte[] token = new byte[64];
+    private int pushedBack = EOF;
+    private boolean endOfInput;
+    private long bytesRead;
+    private long remaining;
+    private final long start;
+    private long gameOffset;
+
+    public PgnReader(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    public PgnReader(ReadableByteChannel channel) {
+        this(channel, 0, Long.MAX_VALUE);
+    }
+
+    // Reads at most length bytes; start is only used to report offsets
+    private PgnReader(ReadableByteChannel channel, long start, long length) {
+        this.channel = channel;
+        this.start = start;
+        remaining = length;
+        buffer.flip();
+    }
+
+    // Reader over the bytes [start, end) of a file, which should begin on a game boundary (see PgnSplitter)
+    public static PgnReader open(Path path, long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        channel.position(start);
+        return new PgnReader(channel, start, end - start);
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    // File offset where the game last returned by next() starts
+    public long getGameOffset() {
+        return gameOffset;
+    }
+
+    // Next game in the stream, or null once it is exhausted
+    public PgnGame next() throws IOException {
+        PgnGame game = null;
+        boolean inMovetext = false;
+        while(true){
+            int c = read();
+            if(c == EOF) return game;
+            if(isWhitespace(c)) continue;
+            if(game == null) gameOffset = position() - 1;
+
+            if(c == '['){
+                // A tag section right after movetext starts the next game (the result was missing)
+                if(inMovetext){
+                    pushedBack = c;
+                    return game;
+                }
+                if(game == null) game = new PgnGame();
+                readTag(game);
+                continue;
+            }
+            if(c == '{'){
+                skipUntil('}');
+                continue;
+            }
+            if(c == ';' || c == '%'){
+                skipUntil('\n');
+                continue;
+            }
+            if(c == '('){
+                skipVariation();
+                continue;
+            }
+            // Numeric annotation glyphs and stray closing brackets carry no moves
+            if(c == '$'){
+                readToken(c);
+                continue;
+            }
+            if(c == ')' || c == '}' || c == ']') continue;
+
+            int length = readToken(c);
+            if(game == null) game = new PgnGame();
+            String result = result(length);
+            if(result != null){
+                game.setResult(result);
+                return game;
+            }
+            // Drop a leading move number such as "12." or "12..."
+            int first = 0;
+            while(first < length && token[first] >= '0' && token[first] <= '9') first++;
+            if(first < length && token[first] == '.'){
+                while(first < length && token[first] == '.') first++;
+            }
+            else first = 0;
+            if(first < length){
+                game.addMove(new String(token, first, length - first, StandardCharsets.US_ASCII));
+                inMovetext = true;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int read() throws IOException {
+        if(pushedBack != EOF){
+            int c = pushedBack;
+            pushedBack = EOF;
+            return c;
+        }
+        if(!buffer.hasRemaining()){
+            if(endOfInput || remaining == 0) return EOF;
+            buffer.clear();
+            if(remaining < BUFFER_SIZE) buffer.limit((int) remaining);
+            int n;
+            do{
+                n = channel.read(buffer);
+            } while(n == 0);
+            buffer.flip();
+            if(n < 0){
+                endOfInput = true;
+                return EOF;
+            }
+            bytesRead += n;
+            remaining -= n;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private long position(){
+        return start + bytesRead - buffer.remaining() - (pushedBack != EOF ? 1 : 0);
+    }
+
+    // [Name "Value"] with \" and \\ escapes; values are UTF-8
+    private void readTag(PgnGame game) throws IOException {
+        int c = read();
+        while(isWhitespace(c)) c = read();
+        int length = 0;
+        while(c != EOF && !isWhitespace(c) && c != '"' && c != ']'){
+            length = append(length, c);
+            c = read();
+        }
+        String name = new String(token, 0, length, StandardCharsets.US_ASCII);
+        while(c != EOF && c != '"' && c != ']') c = read();
+
+        length = 0;
+        if(c == '"'){
+            c = read();
+            while(c != EOF && c != '"'){
+                if(c == '\\') c = read();
+                if(c == EOF) break;
+                length = append(length, c);
+                c = read();
+            }
+            skipUntil(']');
+        }
+        if(!name.isEmpty()) game.putTag(name, new String(token, 0, length, StandardCharsets.UTF_8));
+    }
+
+    // Reads a movetext symbol starting with c into the token buffer and returns its length
+    private int readToken(int c) throws IOException {
+        int length = 0;
+        while(c != EOF && !isWhitespace(c) && !isDelimiter(c)){
+            length = append(length, c);
+            c = read();
+        }
+        if(isDelimiter(c)) pushedBack = c;
+        return length;
+    }
+
+    private int append(int length, int c){
+        if(length == token.length) token = Arrays.copyOf(token, length * 2);
+        token[length] = (byte) c;
+        return length + 1;
+    }
+
+    private void skipUntil(int end) throws IOException {
+        int c = read();
+        while(c != EOF && c != end) c = read();
+    }
+
+    // Variations may nest and may contain comments with unbalanced parentheses
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        while(depth > 0){
+            int c = read();
+            if(c == EOF) return;
+            if(c == '(') depth++;
+            else if(c == ')') depth--;
+            else if(c == '{') skipUntil('}');
+            else if(c == ';') skipUntil('\n');
+        }
+    }
+
+    private String result(int length){
+        if(length == 1 && token[0] == '*') return "*";
+        if(length == 3 && token[1] == '-'){
+            if(token[0] == '1' && token[2] == '0') return "1-0";
+            if(token[0] == '0' && token[2] == '1') return "0-1";
+        }
+        if(length == 7 && token[0] == '1' && token[1] == '/' && token[2] == '2' && token[3] == '-') return "1/2-1/2";
+        return null;
+    }
+
+    private static boolean isWhitespace(int c){
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+
+    private static boolean isDelimiter(int c){
+        return c == '[' || c == ']' || c == '{' || c == '}' || c == '(' || c == ')' || c == ';';
+    }
+}
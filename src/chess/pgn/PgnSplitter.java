@@ -0,0 +1,65 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Cuts a PGN file into byte ranges that each start on a game, so they can be read independently
+public final class PgnSplitter {
+
+    private static final int WINDOW_SIZE = 1 << 14;
+
+    private PgnSplitter() {
+    }
+
+    // Chunk boundaries: 0, ..., file size. Chunk i is [bounds[i], bounds[i + 1])
+    public static long[] split(Path path, long chunkSize) throws IOException {
+        if(chunkSize < 1) throw new IllegalArgumentException("Chunk size must be positive");
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            long size = channel.size();
+            long[] bounds = new long[(int) Math.min(size / chunkSize + 2, Integer.MAX_VALUE - 8)];
+            int count = 1;
+            ByteBuffer window = ByteBuffer.allocate(WINDOW_SIZE);
+            for(long target = chunkSize; target < size; target += chunkSize){
+                if(target <= bounds[count - 1]) continue;
+                long bound = nextGame(channel, window, target, size);
+                if(bound >= size) break;
+                if(bound > bounds[count - 1]) bounds[count++] = bound;
+            }
+            bounds[count++] = size;
+            return Arrays.copyOf(bounds, count);
+        }
+    }
+
+    // Start of the first tag line at or after from that follows movetext, i.e. the first tag of a game.
+    // A tag line right after other tags belongs to the same game, so at least one movetext line has to be seen
+    private static long nextGame(FileChannel channel, ByteBuffer window, long from, long size) throws IOException {
+        long position = from;
+        boolean lineStart = false;
+        boolean afterMovetext = false;
+        boolean blank = true;
+        while(position < size){
+            window.clear();
+            int n = channel.read(window, position);
+            if(n <= 0) break;
+            for(int i = 0; i < n; i++, position++){
+                byte c = window.get(i);
+                if(c == '\n'){
+                    lineStart = true;
+                    blank = true;
+                    continue;
+                }
+                if(c == '\r' || c == ' ' || c == '\t') continue;
+                if(lineStart && blank){
+                    if(c == '[' && afterMovetext) return position;
+                    afterMovetext = c != '[';
+                }
+                blank = false;
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,128 @@
+package chess.pgn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Totals for a batch of replayed games. Each worker fills its own report; they are merged at the end
+public class ValidationReport {
+
+    private static final int MAX_ERRORS = 100;
+
+    private long games;
+    private long invalid;
+    private long plies;
+    private long bytes;
+    private long whiteWins;
+    private long blackWins;
+    private long draws;
+    private long unfinished;
+    private long checkmates;
+    private long stalemates;
+    private long parseNanos;
+    private long replayNanos;
+    private final List<String> errors = new ArrayList<>();
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public long getPlies() {
+        return plies;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getWhiteWins() {
+        return whiteWins;
+    }
+
+    public long getBlackWins() {
+        return blackWins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    // Final positions of the valid games that ended on the board
+    public long getCheckmates() {
+        return checkmates;
+    }
+
+    public long getStalemates() {
+        return stalemates;
+    }
+
+    // Time spent reading and tokenizing, summed over all workers
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    // Time spent playing the moves through the rules engine, summed over all workers
+    public long getReplayNanos() {
+        return replayNanos;
+    }
+
+    // The first illegal moves found, at most MAX_ERRORS
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    void addGame(PgnGame game){
+        games++;
+        switch(game.getResult()){
+            case "1-0": whiteWins++; break;
+            case "0-1": blackWins++; break;
+            case "1/2-1/2": draws++; break;
+            default: unfinished++;
+        }
+    }
+
+    void addValid(int gamePlies, boolean checkmate, boolean stalemate){
+        plies += gamePlies;
+        if(checkmate) checkmates++;
+        if(stalemate) stalemates++;
+    }
+
+    void addInvalid(long offset, String message){
+        invalid++;
+        if(errors.size() < MAX_ERRORS) errors.add("Game at byte " + offset + ": " + message);
+    }
+
+    void addTimes(long bytes, long parseNanos, long replayNanos){
+        this.bytes += bytes;
+        this.parseNanos += parseNanos;
+        this.replayNanos += replayNanos;
+    }
+
+    ValidationReport merge(ValidationReport other){
+        games += other.games;
+        invalid += other.invalid;
+        plies += other.plies;
+        bytes += other.bytes;
+        whiteWins += other.whiteWins;
+        blackWins += other.blackWins;
+        draws += other.draws;
+        unfinished += other.unfinished;
+        checkmates += other.checkmates;
+        stalemates += other.stalemates;
+        parseNanos += other.parseNanos;
+        replayNanos += other.replayNanos;
+        for(String error : other.errors){
+            if(errors.size() == MAX_ERRORS) break;
+            errors.add(error);
+        }
+        return this;
+    }
+}
@@ -47,12 +47,11 @@ public class Pawn extends ChessPiece {
         p.setValues(position.getRow() + twoMoves, position.getColumn());
         p2.setValues(position.getRow() + oneMove, position.getColumn());
         if(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)
-                && getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) && getMoveCount() == 0) {
+                && getBoard().positionExists(p2) && !getBoard().thereIsAPiece(p2) && getMoveCount() == 0) {
             mat[p.getRow()][p.getColumn()] = true;
-            mat[p2.getRow()][p2.getColumn()] = true;
         }
 
-        // Capture to the right
+        // Capture to the left
         p.setValues(position.getRow() + oneMove, position.getColumn() - 1);
         if(getBoard().positionExists(p) && isThereOpponentPiece(p)) mat[p.getRow()][p.getColumn()] = true;
 
@@ -72,7 +71,7 @@ public class Pawn extends ChessPiece {
             // Opponent pawn on the right is vulnerable
             Position right = new Position(position.getRow(), position.getColumn() + 1);
             if(getBoard().positionExists(right) && isThereOpponentPiece(right) && getBoard().piece(right) == chessMatch.getEnPassantVulnerable()){
-                mat[left.getRow() + oneMove][left.getColumn()] = true;
+                mat[right.getRow() + oneMove][right.getColumn()] = true;
             }
         }
 
@@ -0,0 +1,118 @@
+package chess.tablebase;
+
+import chess.bitboard.BitBoard;
+
+import java.util.Arrays;
+
+// Material combinations with a table: a king and one or two pieces against a bare king. Positions are
+// indexed with the strong side as white, so a position where black is strong is looked up flipped.
+//
+// Pawnless index: side to move | strong king (10 squares of the a1-d1-d4 triangle) | pieces | weak king.
+// The board is mirrored and rotated until the strong king is in the triangle, which cuts the table about six-fold.
+// Pawn index: side to move | pawn (files a-d, ranks 2-7) | strong king | weak king, mirrored left-right.
+public enum Ending {
+    KQK(BitBoard.QUEEN),
+    KRK(BitBoard.ROOK),
+    KPK(BitBoard.PAWN),
+    KBNK(BitBoard.BISHOP, BitBoard.KNIGHT);
+
+    private static final int[] TRIANGLE = new int[64];
+    private static final int[] TRIANGLE_SQUARES = {0, 1, 2, 3, 9, 10, 11, 18, 19, 27};
+    // Symmetry that takes a king on the square into the triangle, as a square -> square table
+    private static final int[][] SYMMETRY = new int[64][64];
+
+    static {
+        Arrays.fill(TRIANGLE, -1);
+        for(int i = 0; i < TRIANGLE_SQUARES.length; i++) TRIANGLE[TRIANGLE_SQUARES[i]] = i;
+        for(int king = 0; king < 64; king++){
+            boolean flipFile = (king & 7) > 3;
+            boolean flipRank = (king >>> 3) > 3;
+            int f = flipFile ? 7 - (king & 7) : king & 7;
+            int r = flipRank ? 7 - (king >>> 3) : king >>> 3;
+            boolean swap = r > f;
+            for(int sq = 0; sq < 64; sq++){
+                int file = flipFile ? 7 - (sq & 7) : sq & 7;
+                int rank = flipRank ? 7 - (sq >>> 3) : sq >>> 3;
+                SYMMETRY[king][sq] = swap ? file * 8 + rank : rank * 8 + file;
+            }
+        }
+    }
+
+    private final int[] pieces;
+    private final boolean pawn;
+    private final int size;
+
+    Ending(int... pieces) {
+        this.pieces = pieces;
+        pawn = pieces[0] == BitBoard.PAWN;
+        size = pawn ? 2 * 24 * 64 * 64 : 2 * 10 * (1 << (6 * pieces.length)) * 64;
+    }
+
+    // Number and types of the strong side's pieces besides the king, in index order
+    public int pieceCount(){
+        return pieces.length;
+    }
+
+    public int pieceType(int i){
+        return pieces[i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String fileName(){
+        return name() + ".tb";
+    }
+
+    // The ending whose strong side has exactly these pieces besides the king, or null
+    public static Ending of(int queens, int rooks, int bishops, int knights, int pawns){
+        int total = queens + rooks + bishops + knights + pawns;
+        if(total == 1){
+            if(queens == 1) return KQK;
+            if(rooks == 1) return KRK;
+            if(pawns == 1) return KPK;
+        }
+        if(total == 2 && bishops == 1 && knights == 1) return KBNK;
+        return null;
+    }
+
+    // Strong side is white. second is ignored for single-piece endings
+    public int index(int sideToMove, int strongKing, int first, int second, int weakKing){
+        if(pawn){
+            // Pawn on the queen side half of the board
+            if((first & 7) > 3){
+                first ^= 7;
+                strongKing ^= 7;
+                weakKing ^= 7;
+            }
+            int pawnIndex = ((first >>> 3) - 1) * 4 + (first & 7);
+            return ((sideToMove * 24 + pawnIndex) * 64 + strongKing) * 64 + weakKing;
+        }
+        int[] symmetry = SYMMETRY[strongKing];
+        int index = sideToMove * 10 + TRIANGLE[symmetry[strongKing]];
+        index = index * 64 + symmetry[first];
+        if(pieces.length == 2) index = index * 64 + symmetry[second];
+        return index * 64 + symmetry[weakKing];
+    }
+
+    // Inverse of index: fills in side to move, strong king, pieces in order, weak king
+    void decode(int index, int[] out){
+        out[out.length - 1] = index & 63;
+        index >>>= 6;
+        if(pawn){
+            out[1] = index & 63;
+            index >>>= 6;
+            int pawnIndex = index % 24;
+            out[2] = (pawnIndex / 4 + 1) * 8 + pawnIndex % 4;
+            out[0] = index / 24;
+            return;
+        }
+        for(int i = pieces.length; i >= 1; i--){
+            out[i + 1] = index & 63;
+            index >>>= 6;
+        }
+        out[1] = TRIANGLE_SQUARES[index % 10];
+        out[0] = index / 10;
+    }
+}
@@ -0,0 +1,280 @@
+package chess.tablebase;
+
+import chess.bitboard.BitBoard;
+import chess.bitboard.Bitboards;
+import chess.bitboard.MoveGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+// Builds the tables by retrograde analysis. Mates are found first; then pass d resolves every position
+// that is mate in exactly d plies: with the strong side to move, positions with a move into a loss in
+// d - 1, and with the weak king to move, positions whose moves all lead to wins already found. A pass only
+// writes positions of one side to move and only reads the other side's, so it runs on a fork/join pool
+// over slices of the index without any locking. Whatever is unresolved when two passes in a row find
+// nothing is a draw
+public class TablebaseGenerator {
+
+    private static final int SLICE = 1 << 14;
+    private static final byte ILLEGAL = 1;
+    // A draw already: stalemate, or the weak king can take a piece
+    private static final byte DRAWN = 2;
+
+    private final ForkJoinPool pool;
+    private final Map<Ending, byte[]> tables = new EnumMap<>(Ending.class);
+    private int passes;
+
+    public TablebaseGenerator(int threads) {
+        pool = new ForkJoinPool(threads);
+    }
+
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    // Passes needed by the last generate call
+    public int getPasses() {
+        return passes;
+    }
+
+    // Table bytes as described in Tablebases. KPK needs KQK and KRK for its promotions and builds them first
+    public byte[] generate(Ending ending){
+        byte[] values = tables.get(ending);
+        if(values != null) return values;
+        if(ending == Ending.KPK){
+            generate(Ending.KQK);
+            generate(Ending.KRK);
+        }
+        values = new byte[ending.size()];
+        byte[] flags = new byte[ending.size()];
+        pool.invoke(new Pass(ending, values, flags, 0, 0, ending.size(), new LongAdder()));
+        passes = 0;
+        int idle = 0;
+        for(int d = 1; idle < 2; d++){
+            LongAdder resolved = new LongAdder();
+            pool.invoke(new Pass(ending, values, flags, d, 0, ending.size(), resolved));
+            passes = d;
+            idle = resolved.sum() == 0 ? idle + 1 : 0;
+        }
+        tables.put(ending, values);
+        return values;
+    }
+
+    public void shutdown(){
+        pool.shutdown();
+    }
+
+    public static void write(Ending ending, byte[] values, Path directory) throws IOException {
+        try(FileChannel channel = FileChannel.open(directory.resolve(ending.fileName()), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            ByteBuffer header = ByteBuffer.allocate(Tablebases.HEADER_SIZE);
+            header.putInt(Tablebases.MAGIC).putInt(values.length).flip();
+            ByteBuffer body = ByteBuffer.wrap(values);
+            while(header.hasRemaining()) channel.write(header);
+            while(body.hasRemaining()) channel.write(body);
+        }
+    }
+
+    // Pass 0 classifies every position; pass d resolves the mates in d plies. Only ever run on the pool,
+    // never serialized
+    @SuppressWarnings("serial")
+    private class Pass extends RecursiveAction {
+
+        private final Ending ending;
+        private final byte[] values;
+        private final byte[] flags;
+        private final int depth;
+        private final int from;
+        private final int to;
+        private final LongAdder resolved;
+
+        Pass(Ending ending, byte[] values, byte[] flags, int depth, int from, int to, LongAdder resolved) {
+            this.ending = ending;
+            this.values = values;
+            this.flags = flags;
+            this.depth = depth;
+            this.from = from;
+            this.to = to;
+            this.resolved = resolved;
+        }
+
+        @Override
+        protected void compute(){
+            if(to - from > SLICE){
+                int mid = (from + to) >>> 1;
+                invokeAll(new Pass(ending, values, flags, depth, from, mid, resolved),
+                        new Pass(ending, values, flags, depth, mid, to, resolved));
+                return;
+            }
+            // side to move, strong king, pieces, weak king
+            int[] squares = new int[ending.pieceCount() + 3];
+            // Pass d only looks at the side whose mates in d plies can be found now
+            int side = (depth & 1) == 1 ? BitBoard.WHITE : BitBoard.BLACK;
+            int count = 0;
+            for(int index = from; index < to; index++){
+                if(depth == 0){
+                    classify(index, squares);
+                    continue;
+                }
+                if(values[index] != 0 || flags[index] != 0) continue;
+                ending.decode(index, squares);
+                if(squares[0] != side) continue;
+                boolean mated = side == BitBoard.WHITE ? strongMates(squares) : weakLoses(squares);
+                if(mated){
+                    values[index] = (byte) (depth + 1);
+                    count++;
+                }
+            }
+            resolved.add(count);
+        }
+
+        private void classify(int index, int[] squares){
+            ending.decode(index, squares);
+            int n = squares.length;
+            int strongKing = squares[1];
+            int weakKing = squares[n - 1];
+            long occupied = 0;
+            for(int i = 1; i < n; i++){
+                long b = 1L << squares[i];
+                if((occupied & b) != 0){
+                    flags[index] = ILLEGAL;
+                    return;
+                }
+                occupied |= b;
+            }
+            if((Bitboards.KING_ATTACKS[strongKing] & (1L << weakKing)) != 0){
+                flags[index] = ILLEGAL;
+                return;
+            }
+            boolean weakInCheck = attackedByPieces(squares, weakKing, occupied, -1);
+            if(squares[0] == BitBoard.WHITE){
+                if(weakInCheck) flags[index] = ILLEGAL;
+                else if(!strongCanMove(squares, occupied)) flags[index] = DRAWN;
+                return;
+            }
+
+            boolean canMove = false;
+            long targets = Bitboards.KING_ATTACKS[weakKing] & ~Bitboards.KING_ATTACKS[strongKing];
+            long withoutKing = occupied & ~(1L << weakKing);
+            for(long b = targets; b != 0; b &= b - 1){
+                int target = Long.numberOfTrailingZeros(b);
+                int captured = -1;
+                for(int i = 2; i < n - 1; i++) if(squares[i] == target) captured = i;
+                if(attackedByPieces(squares, target, withoutKing, captured)) continue;
+                if(captured >= 0){
+                    flags[index] = DRAWN;
+                    return;
+                }
+                canMove = true;
+            }
+            if(canMove) return;
+            if(weakInCheck) values[index] = 1;
+            else flags[index] = DRAWN;
+        }
+
+        // Strong side to move: is there a move into a position lost in depth - 1 plies?
+        private boolean strongMates(int[] squares){
+            int n = squares.length;
+            int strongKing = squares[1];
+            int weakKing = squares[n - 1];
+            int first = squares[2];
+            int second = n > 4 ? squares[3] : 0;
+            long occupied = 0;
+            for(int i = 1; i < n; i++) occupied |= 1L << squares[i];
+            int target = depth;
+
+            long kingMoves = Bitboards.KING_ATTACKS[strongKing] & ~occupied & ~Bitboards.KING_ATTACKS[weakKing];
+            for(long b = kingMoves; b != 0; b &= b - 1){
+                int index = ending.index(BitBoard.BLACK, Long.numberOfTrailingZeros(b), first, second, weakKing);
+                if(values[index] == target) return true;
+            }
+            for(int i = 2; i < n - 1; i++){
+                int square = squares[i];
+                int type = ending.pieceType(i - 2);
+                if(type == BitBoard.PAWN){
+                    int push = square + 8;
+                    if((occupied & (1L << push)) != 0) continue;
+                    if(Bitboards.rank(push) == 7){
+                        if(promotionValue(Ending.KQK, strongKing, push, weakKing) == target) return true;
+                        if(promotionValue(Ending.KRK, strongKing, push, weakKing) == target) return true;
+                        continue;
+                    }
+                    if(values[ending.index(BitBoard.BLACK, strongKing, push, 0, weakKing)] == target) return true;
+                    int doublePush = square + 16;
+                    if(Bitboards.rank(square) == 1 && (occupied & (1L << doublePush)) == 0
+                            && values[ending.index(BitBoard.BLACK, strongKing, doublePush, 0, weakKing)] == target)
+                        return true;
+                    continue;
+                }
+                for(long b = MoveGenerator.attacks(type, square, occupied) & ~occupied; b != 0; b &= b - 1){
+                    int moved = Long.numberOfTrailingZeros(b);
+                    int index = i == 2 ? ending.index(BitBoard.BLACK, strongKing, moved, second, weakKing)
+                            : ending.index(BitBoard.BLACK, strongKing, first, moved, weakKing);
+                    if(values[index] == target) return true;
+                }
+            }
+            return false;
+        }
+
+        // Weak king to move: does every move lead to a position already known to be won?
+        private boolean weakLoses(int[] squares){
+            int n = squares.length;
+            int strongKing = squares[1];
+            int weakKing = squares[n - 1];
+            int first = squares[2];
+            int second = n > 4 ? squares[3] : 0;
+            long occupied = 0;
+            for(int i = 1; i < n; i++) occupied |= 1L << squares[i];
+            long withoutKing = occupied & ~(1L << weakKing);
+
+            // Captures were ruled out by pass 0, so only moves to empty squares are left
+            long targets = Bitboards.KING_ATTACKS[weakKing] & ~Bitboards.KING_ATTACKS[strongKing] & ~occupied;
+            for(long b = targets; b != 0; b &= b - 1){
+                int target = Long.numberOfTrailingZeros(b);
+                if(attackedByPieces(squares, target, withoutKing, -1)) continue;
+                if(values[ending.index(BitBoard.WHITE, strongKing, first, second, target)] == 0) return false;
+            }
+            return true;
+        }
+
+        // Whether the strong side has any legal move; its king is never in check here
+        private boolean strongCanMove(int[] squares, long occupied){
+            int n = squares.length;
+            long kingMoves = Bitboards.KING_ATTACKS[squares[1]] & ~occupied & ~Bitboards.KING_ATTACKS[squares[n - 1]];
+            if(kingMoves != 0) return true;
+            for(int i = 2; i < n - 1; i++){
+                int type = ending.pieceType(i - 2);
+                if(type == BitBoard.PAWN){
+                    if((occupied & (1L << (squares[i] + 8))) == 0) return true;
+                }
+                else if((MoveGenerator.attacks(type, squares[i], occupied) & ~occupied) != 0) return true;
+            }
+            return false;
+        }
+
+        // Is the square attacked by the strong side's king or pieces, leaving out the piece at index skip
+        private boolean attackedByPieces(int[] squares, int square, long occupied, int skip){
+            if((Bitboards.KING_ATTACKS[squares[1]] & (1L << square)) != 0) return true;
+            for(int i = 2; i < squares.length - 1; i++){
+                if(i == skip) continue;
+                int type = ending.pieceType(i - 2);
+                long attacks = type == BitBoard.PAWN ? Bitboards.PAWN_ATTACKS[BitBoard.WHITE][squares[i]]
+                        : MoveGenerator.attacks(type, squares[i], occupied);
+                if((attacks & (1L << square)) != 0) return true;
+            }
+            return false;
+        }
+
+        private int promotionValue(Ending promoted, int strongKing, int square, int weakKing){
+            return tables.get(promoted)[promoted.index(BitBoard.BLACK, strongKing, square, 0, weakKing)];
+        }
+    }
+}
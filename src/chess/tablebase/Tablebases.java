@@ -0,0 +1,126 @@
+package chess.tablebase;
+
+import chess.bitboard.BitBoard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Read-only access to the tables written by TablebaseGenerator. Each file is mapped and probed with
+// absolute reads, so one instance serves every search thread and probing allocates nothing.
+//
+// File: magic "CTB1" | entry count (4 bytes) | one byte per position index (see Ending): 0 for a draw
+// (or an impossible position), otherwise 1 + the number of plies to mate for the strong side
+public class Tablebases implements Closeable {
+
+    public static final int LOSS = -1;
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+    public static final int UNKNOWN = 2;
+    // Most pieces, kings included, in any ending with a table
+    public static final int MAX_PIECES = 4;
+
+    static final int MAGIC = 0x43544231;
+    static final int HEADER_SIZE = 8;
+
+    private final FileChannel[] channels = new FileChannel[Ending.values().length];
+    private final ByteBuffer[] tables = new ByteBuffer[Ending.values().length];
+
+    // Loads whichever tables the directory has
+    public Tablebases(Path directory) throws IOException {
+        for(Ending ending : Ending.values()){
+            Path path = directory.resolve(ending.fileName());
+            if(!Files.exists(path)) continue;
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(channel.size() != HEADER_SIZE + ending.size() || table.getInt(0) != MAGIC
+                    || table.getInt(4) != ending.size()){
+                channel.close();
+                close();
+                throw new IOException("Not a " + ending + " table: " + path);
+            }
+            channels[ending.ordinal()] = channel;
+            tables[ending.ordinal()] = table;
+        }
+    }
+
+    public boolean has(Ending ending){
+        return tables[ending.ordinal()] != null;
+    }
+
+    public int count(){
+        int count = 0;
+        for(ByteBuffer table : tables){
+            if(table != null) count++;
+        }
+        return count;
+    }
+
+    // WIN, DRAW or LOSS for the side to move, or UNKNOWN when no loaded table covers the position
+    public int probe(BitBoard position){
+        int entry = entry(position);
+        if(entry < 0) return UNKNOWN;
+        if(entry == 0) return DRAW;
+        return isStrongToMove(position) ? WIN : LOSS;
+    }
+
+    // Plies until mate with best play by both sides, for a position probe() reports as won or lost
+    public int distanceToMate(BitBoard position){
+        int entry = entry(position);
+        return entry <= 0 ? -1 : entry - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for(int i = 0; i < channels.length; i++){
+            if(channels[i] != null) channels[i].close();
+            channels[i] = null;
+            tables[i] = null;
+        }
+    }
+
+    // Raw table byte, or -1 without a table
+    private int entry(BitBoard position){
+        int strong = strongSide(position);
+        if(strong < 0) return -1;
+        Ending ending = Ending.of(
+                Long.bitCount(position.pieces(strong, BitBoard.QUEEN)),
+                Long.bitCount(position.pieces(strong, BitBoard.ROOK)),
+                Long.bitCount(position.pieces(strong, BitBoard.BISHOP)),
+                Long.bitCount(position.pieces(strong, BitBoard.KNIGHT)),
+                Long.bitCount(position.pieces(strong, BitBoard.PAWN)));
+        if(ending == null) return -1;
+        ByteBuffer table = tables[ending.ordinal()];
+        if(table == null) return -1;
+
+        // Tables have white as the strong side, so black's pieces are mirrored onto white's ranks
+        int flip = strong == BitBoard.WHITE ? 0 : 56;
+        int first = Long.numberOfTrailingZeros(position.pieces(strong, ending.pieceType(0))) ^ flip;
+        int second = ending.pieceCount() > 1
+                ? Long.numberOfTrailingZeros(position.pieces(strong, ending.pieceType(1))) ^ flip : 0;
+        int sideToMove = position.getSideToMove() == strong ? BitBoard.WHITE : BitBoard.BLACK;
+        int index = ending.index(sideToMove, position.kingSquare(strong) ^ flip, first, second,
+                position.kingSquare(strong ^ 1) ^ flip);
+        return table.get(HEADER_SIZE + index) & 0xFF;
+    }
+
+    // The side with pieces besides its king when the other has a bare king, otherwise -1.
+    // Castling could change the outcome, so positions that still allow it are left out
+    private static int strongSide(BitBoard position){
+        if(Long.bitCount(position.occupied()) > MAX_PIECES || position.getCastlingRights() != 0) return -1;
+        int whiteCount = Long.bitCount(position.occupancy(BitBoard.WHITE));
+        int blackCount = Long.bitCount(position.occupancy(BitBoard.BLACK));
+        if(blackCount == 1 && whiteCount > 1) return BitBoard.WHITE;
+        if(whiteCount == 1 && blackCount > 1) return BitBoard.BLACK;
+        return -1;
+    }
+
+    private static boolean isStrongToMove(BitBoard position){
+        return position.getSideToMove() == strongSide(position);
+    }
+}
@@ -0,0 +1,258 @@
+package server;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.GameResult;
+import chess.bitboard.Move;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Hosts matches over a line-based protocol on localhost. Every connection runs on its own thread and owns
+// its matches outright, so a ChessMatch is only ever touched by one thread and needs no locking.
+//
+//   new [fen]            -> ok <id>
+//   resume <id>          -> ok <fen>
+//   move <id> <uci|san>  -> ok <san> <ongoing|check|checkmate|stalemate|threefold_repetition|
+//                           fifty_move_rule|insufficient_material>
+//   moves <id>           -> ok <uci> ...
+//   fen <id>             -> ok <fen>
+//   close <id>           -> ok
+//   stats                -> ok <server counters>
+//   quit
+// Errors are answered with "error <message>". Matches outlive their connection until closed: when a client
+// goes away its matches are detached, and any connection can resume them by id. With a journal, a match
+// and each of its moves are on disk before they are acknowledged, and a restarted server adopts the
+// recovered matches as detached ones
+public class GameServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final boolean virtualThreads;
+    private final Thread acceptor;
+    private final MoveJournal journal;
+    private final AtomicLong nextMatchId = new AtomicLong();
+    // Handing a match over through this map is what moves it safely from one connection's thread to another
+    private final Map<Long, ChessMatch> detached = new ConcurrentHashMap<>();
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicInteger activeMatches = new AtomicInteger();
+    private final LongAdder matchesCreated = new LongAdder();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+
+    public GameServer(int port) throws IOException {
+        this(port, null);
+    }
+
+    public GameServer(int port, MoveJournal journal) throws IOException {
+        this.journal = journal;
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        ExecutorService executor = newVirtualThreadExecutor();
+        virtualThreads = executor != null;
+        connections = virtualThreads ? executor : Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "game-connection");
+            t.setDaemon(true);
+            return t;
+        });
+        acceptor = new Thread(this::acceptLoop, "game-server-accept");
+        acceptor.setDaemon(true);
+    }
+
+    // Matches recovered from the journal; call before start(). New ids continue after every id in the
+    // journal, not just the recovered ones, since closed matches still have records there
+    public void adopt(Recovery recovery){
+        detached.putAll(recovery.getMatches());
+        nextMatchId.accumulateAndGet(recovery.getHighestMatchId(), Math::max);
+        activeMatches.addAndGet(recovery.getMatches().size());
+    }
+
+    public void start(){
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    public int getActiveMatches() {
+        return activeMatches.get();
+    }
+
+    public long getMatchesCreated() {
+        return matchesCreated.sum();
+    }
+
+    // Time to apply a move and build its answer, excluding the network
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    // Virtual threads need Java 21; the build targets 11, so the factory is looked up at run time
+    // and a cached pool of platform threads is used when it isn't there
+    public static ExecutorService newVirtualThreadExecutor(){
+        try{
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(ReflectiveOperationException e){
+            return null;
+        }
+    }
+
+    private void acceptLoop(){
+        while(!serverSocket.isClosed()){
+            try{
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> serve(socket));
+            }
+            catch(IOException e){
+                if(serverSocket.isClosed()) return;
+            }
+        }
+    }
+
+    private void serve(Socket socket){
+        activeConnections.incrementAndGet();
+        Map<Long, ChessMatch> matches = new HashMap<>();
+        try(Socket s = socket;
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII))){
+            String line;
+            while((line = in.readLine()) != null){
+                String[] tokens = line.trim().split("\\s+", 3);
+                if(tokens[0].equals("quit")) break;
+                try{
+                    if(tokens[0].equals("new")){
+                        ChessMatch chessMatch = tokens.length > 1
+                                ? new ChessMatch(line.trim().substring(4).trim()) : new ChessMatch();
+                        long id = nextMatchId.incrementAndGet();
+                        if(journal != null) journal.commit(journal.appendStart(id, chessMatch));
+                        matches.put(id, chessMatch);
+                        activeMatches.incrementAndGet();
+                        matchesCreated.increment();
+                        out.write("ok " + id + "\n");
+                    }
+                    else if(tokens[0].equals("stats")) out.write("ok " + stats() + "\n");
+                    else out.write(handle(tokens, matches));
+                }
+                catch(ChessException | IllegalArgumentException e){
+                    out.write("error " + e.getMessage() + "\n");
+                }
+                // Answer every request that has arrived, but don't hold a lone request back
+                if(!in.ready()) out.flush();
+            }
+        }
+        catch(SocketException e){
+            // client went away
+        }
+        catch(IOException | UncheckedIOException e){
+            // Includes journal failures: a move that isn't on disk is never acknowledged
+            System.err.println("Connection failed: " + e.getMessage());
+        }
+        finally{
+            detached.putAll(matches);
+            activeConnections.decrementAndGet();
+        }
+    }
+
+    private String handle(String[] tokens, Map<Long, ChessMatch> matches) throws IOException {
+        if(tokens.length < 2) throw new IllegalArgumentException("Missing match id");
+        long id = Long.parseLong(tokens[1]);
+        if(tokens[0].equals("resume")){
+            ChessMatch chessMatch = detached.remove(id);
+            if(chessMatch == null) throw new IllegalArgumentException("No detached match " + id);
+            matches.put(id, chessMatch);
+            return "ok " + chessMatch.toFen() + "\n";
+        }
+        ChessMatch chessMatch = matches.get(id);
+        if(chessMatch == null) throw new IllegalArgumentException("No match " + id);
+
+        switch(tokens[0]){
+            case "move":
+                if(tokens.length < 3) throw new IllegalArgumentException("Missing move");
+                return move(id, chessMatch, tokens[2].trim());
+            case "moves":
+                StringBuilder sb = new StringBuilder("ok");
+                for(int move : chessMatch.legalMoves()) sb.append(' ').append(Move.toString(move));
+                return sb.append('\n').toString();
+            case "fen":
+                return "ok " + chessMatch.toFen() + "\n";
+            case "close":
+                // Committed before the answer, or a crash could bring the closed match back on recovery
+                if(journal != null) journal.commit(journal.appendEnd(id));
+                matches.remove(id);
+                activeMatches.decrementAndGet();
+                return "ok\n";
+            default:
+                throw new IllegalArgumentException("Unknown command " + tokens[0]);
+        }
+    }
+
+    private String move(long id, ChessMatch chessMatch, String text) throws IOException {
+        long start = System.nanoTime();
+        if(chessMatch.getResult().isOver()) throw new ChessException("The game is over");
+        int move = isUci(text) ? chessMatch.parseUci(text) : chessMatch.parseSan(text);
+        String san = chessMatch.toSan(move);
+        // Durable before visible: if the commit fails the match is left as the journal has it. The move is
+        // already known to be legal, so it can't be refused once written
+        if(journal != null) journal.commit(journal.appendMove(id, move));
+        chessMatch.performMove(move);
+        GameResult result = chessMatch.getResult();
+        String status = chessMatch.getCheckmate() ? "checkmate"
+                : result.isDraw() ? result.name().toLowerCase()
+                : chessMatch.getCheck() ? "check" : "ongoing";
+        String answer = "ok " + san + " " + status + "\n";
+        moveLatency.record(System.nanoTime() - start);
+        return answer;
+    }
+
+    private String stats(){
+        return "connections " + activeConnections.get()
+                + " matches " + activeMatches.get()
+                + " detached " + detached.size()
+                + " created " + matchesCreated.sum()
+                + " moves " + moveLatency.getCount()
+                + " p50us " + moveLatency.percentile(0.5) / 1000
+                + " p99us " + moveLatency.percentile(0.99) / 1000;
+    }
+
+    // "e2e4", "e7e8q": SAN never starts with a file followed by a rank and then another square
+    private static boolean isUci(String text){
+        return (text.length() == 4 || text.length() == 5)
+                && text.charAt(0) >= 'a' && text.charAt(0) <= 'h' && text.charAt(1) >= '1' && text.charAt(1) <= '8'
+                && text.charAt(2) >= 'a' && text.charAt(2) <= 'h' && text.charAt(3) >= '1' && text.charAt(3) <= '8';
+    }
+}
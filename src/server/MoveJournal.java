@@ -0,0 +1,333 @@
+package server;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.bitboard.BitBoard;
+import chess.bitboard.PositionCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// Append-only journal of match events in memory-mapped segment files (journal-000000.seg, ...).
+// Appending only copies into the mapped segment; durability comes from a flusher thread that forces
+// everything appended so far in one go, so concurrent writers waiting in commit() share a single sync.
+//
+// Record: length (4 bytes) | CRC32 of the body (4 bytes) | body
+// Body:   match id (8 bytes) | type (1 byte) | START: packed position, or nothing for the initial setup
+//                                             | MOVE: packed move (2 bytes)
+//                                             | END: nothing
+// A zero length or a CRC mismatch marks the end of the journal, which is where a crash tore the last write
+public class MoveJournal implements Closeable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    private static final byte START = 1;
+    private static final byte MOVE = 2;
+    private static final byte END = 3;
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_BODY_SIZE = 9 + PositionCodec.MAX_SIZE;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer body = ByteBuffer.allocate(MAX_BODY_SIZE);
+    private final Thread flusher;
+    // An explicit lock rather than a monitor, so virtual threads waiting in commit() don't pin their carriers
+    private final ReentrantLock lock = new ReentrantLock();
+    // The flusher waits on this for a commit to ask for a sync, committers on flushed for it to complete
+    private final Condition flushWanted = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+
+    // Guarded by lock
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private long appended;
+    private long durable;
+    private long syncs;
+    private boolean closed;
+    private IOException failure;
+
+    public MoveJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    // Continues after the last intact record of an existing journal
+    public MoveJournal(Path directory, int segmentSize) throws IOException {
+        if(segmentSize < HEADER_SIZE + MAX_BODY_SIZE) throw new IllegalArgumentException("Segment too small");
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        segmentIndex = 0;
+        while(Files.exists(segmentPath(segmentIndex + 1))) segmentIndex++;
+        segment = map(segmentIndex);
+        int end = 0;
+        for(int next = readRecord(segment, 0, null); next > 0; next = readRecord(segment, end, null)) end = next;
+        // Clear whatever a torn write left behind so it can't be mistaken for a record later
+        for(int i = end; i < segmentSize; i++){
+            if(segment.get(i) != 0) segment.put(i, (byte) 0);
+        }
+        segment.force();
+        segment.position(end);
+        appended = position();
+        durable = appended;
+
+        flusher = new Thread(this::flushLoop, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Matches that were started but not ended, rebuilt by replaying their moves.
+    // Call before appending; a match whose moves no longer replay is left out
+    public Recovery recover() throws IOException {
+        Map<Long, ChessMatch> matches = new HashMap<>();
+        long highestMatchId = 0;
+        for(int i = 0; Files.exists(segmentPath(i)); i++){
+            MappedByteBuffer buffer = i == segmentIndex ? segment : map(i);
+            int offset = 0;
+            while(true){
+                int next = readRecord(buffer, offset, matches);
+                if(next <= 0) break;
+                highestMatchId = Math.max(highestMatchId, buffer.getLong(offset + HEADER_SIZE));
+                offset = next;
+            }
+        }
+        return new Recovery(matches, highestMatchId);
+    }
+
+    public long appendStart(long matchId, ChessMatch chessMatch){
+        BitBoard start = chessMatch.getStartPosition();
+        lock.lock();
+        try{
+            body.clear();
+            body.putLong(matchId).put(START);
+            if(!chessMatch.hasStandardStart()) PositionCodec.write(start, body);
+            return append();
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    public long appendMove(long matchId, int move){
+        lock.lock();
+        try{
+            body.clear();
+            body.putLong(matchId).put(MOVE).putShort((short) move);
+            return append();
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    public long appendEnd(long matchId){
+        lock.lock();
+        try{
+            body.clear();
+            body.putLong(matchId).put(END);
+            return append();
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    // Blocks until everything up to the ticket returned by an append is on disk. Records appended without
+    // a commit become durable with the next one
+    public void commit(long ticket) throws IOException {
+        lock.lock();
+        try{
+            while(durable < ticket){
+                if(failure != null) throw failure;
+                // Wakes the flusher, which takes every record appended by then
+                flushWanted.signal();
+                try{
+                    flushed.await();
+                }
+                catch(InterruptedException e){
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for the journal");
+                }
+            }
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    // Number of forced writes so far; compared with the records appended it shows how well commits group
+    public long getSyncs() {
+        lock.lock();
+        try{
+            return syncs;
+        }
+        finally{
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try{
+            if(closed) return;
+            closed = true;
+            flushWanted.signal();
+        }
+        finally{
+            lock.unlock();
+        }
+        try{
+            flusher.join();
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        segment.force();
+    }
+
+    // Must hold the lock; the body buffer holds the record body
+    private long append(){
+        if(closed) throw new IllegalStateException("Journal closed");
+        body.flip();
+        int length = body.remaining();
+        if(segment.remaining() < HEADER_SIZE + length) nextSegment();
+        crc.reset();
+        crc.update(body.array(), 0, length);
+        int start = segment.position();
+        segment.position(start + 4);
+        segment.putInt((int) crc.getValue());
+        segment.put(body);
+        // Length goes in last so a reader never sees a complete header over an incomplete body
+        segment.putInt(start, length);
+        appended = position();
+        return appended;
+    }
+
+    private void nextSegment(){
+        segment.force();
+        durable = appended;
+        syncs++;
+        try{
+            segment = map(++segmentIndex);
+        }
+        catch(IOException e){
+            throw new UncheckedIOException("Can't create journal segment", e);
+        }
+        appended = position();
+        durable = appended;
+        flushed.signalAll();
+    }
+
+    private void flushLoop(){
+        while(true){
+            long target;
+            MappedByteBuffer buffer;
+            lock.lock();
+            try{
+                while(appended == durable && !closed){
+                    try{
+                        flushWanted.await();
+                    }
+                    catch(InterruptedException e){
+                        return;
+                    }
+                }
+                if(closed && appended == durable){
+                    flushed.signalAll();
+                    return;
+                }
+                target = appended;
+                buffer = segment;
+            }
+            finally{
+                lock.unlock();
+            }
+            try{
+                buffer.force();
+            }
+            catch(UncheckedIOException e){
+                lock.lock();
+                try{
+                    failure = e.getCause();
+                    flushed.signalAll();
+                }
+                finally{
+                    lock.unlock();
+                }
+                return;
+            }
+            lock.lock();
+            try{
+                if(target > durable) durable = target;
+                syncs++;
+                flushed.signalAll();
+            }
+            finally{
+                lock.unlock();
+            }
+        }
+    }
+
+    private long position(){
+        return (long) segmentIndex * segmentSize + segment.position();
+    }
+
+    // Offset of the next record, or 0 at the end of the journal. Replays the record when matches is given
+    private static int readRecord(ByteBuffer buffer, int offset, Map<Long, ChessMatch> matches){
+        if(offset + HEADER_SIZE > buffer.capacity()) return 0;
+        int length = buffer.getInt(offset);
+        if(length < 9 || length > MAX_BODY_SIZE || offset + HEADER_SIZE + length > buffer.capacity()) return 0;
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset + HEADER_SIZE).limit(offset + HEADER_SIZE + length);
+        CRC32 crc = new CRC32();
+        crc.update(record.duplicate());
+        if((int) crc.getValue() != buffer.getInt(offset + 4)) return 0;
+
+        if(matches != null) replay(record, matches);
+        return offset + HEADER_SIZE + length;
+    }
+
+    private static void replay(ByteBuffer record, Map<Long, ChessMatch> matches){
+        long id = record.getLong();
+        byte type = record.get();
+        try{
+            if(type == START){
+                matches.put(id, record.hasRemaining() ? new ChessMatch(PositionCodec.read(record)) : new ChessMatch());
+            }
+            else if(type == MOVE){
+                ChessMatch chessMatch = matches.get(id);
+                if(chessMatch != null) chessMatch.performMove(record.getShort() & 0xFFFF);
+            }
+            else if(type == END) matches.remove(id);
+        }
+        catch(ChessException e){
+            // Later moves of this match are skipped as well
+            matches.remove(id);
+        }
+    }
+
+    private Path segmentPath(int index){
+        return directory.resolve(String.format("journal-%06d.seg", index));
+    }
+
+    private MappedByteBuffer map(int index) throws IOException {
+        try(FileChannel channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+}
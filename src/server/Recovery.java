@@ -0,0 +1,27 @@
+package server;
+
+import chess.ChessMatch;
+
+import java.util.Map;
+
+// What a journal replay found: the matches still open, and the highest id any record used, closed matches
+// included, so a restarted server never hands out an id that already has records
+public class Recovery {
+
+    private final Map<Long, ChessMatch> matches;
+    private final long highestMatchId;
+
+    Recovery(Map<Long, ChessMatch> matches, long highestMatchId) {
+        this.matches = matches;
+        this.highestMatchId = highestMatchId;
+    }
+
+    // Matches that were started but not ended, by id
+    public Map<Long, ChessMatch> getMatches() {
+        return matches;
+    }
+
+    public long getHighestMatchId() {
+        return highestMatchId;
+    }
+}